@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_DEEP_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_FINGERPRINT;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_ID;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_SIZE;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_TYPE;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * <p>
+ * A base class for {@link ImportContext}s backed by the metadata of the imported package.
+ * </p>
+ * <p>
+ * Subclasses only implement the typed accessors, usually by delegating to the package metadata, and get the
+ * {@link #asMap() map view} for free: the view reads the accessors on demand rather than being populated upfront.
+ * Properties of the package metadata without a typed accessor, e.g. the enqueue timestamp, are exposed through
+ * {@link #getExtraProperties()} so that property map based processors still receive them.
+ * </p>
+ */
+@ProviderType
+public abstract class AbstractImportContext implements ImportContext {
+
+    private static final List<String> TYPED_KEYS = Collections.unmodifiableList(Arrays.asList(
+            DISTRIBUTION_PACKAGE_ID, DISTRIBUTION_TYPE, DISTRIBUTION_PATHS, DISTRIBUTION_DEEP_PATHS,
+            DISTRIBUTION_PACKAGE_SIZE, DISTRIBUTION_PACKAGE_FINGERPRINT));
+
+    private final Map<String, Object> map = new View();
+
+    /**
+     * get the fingerprint of the imported package, subclasses override this method when the fingerprint is known
+     *
+     * @return the fingerprint, {@code null} by default
+     */
+    @Nullable
+    @Override
+    public String getFingerprint() {
+        return null;
+    }
+
+    /**
+     * get the properties of the imported package which have no typed accessor, subclasses override this method to
+     * expose them through the {@link #asMap() map view}; entries for keys with a typed accessor are ignored
+     *
+     * @return the extra properties, empty by default
+     */
+    @NotNull
+    protected Map<String, Object> getExtraProperties() {
+        return Collections.emptyMap();
+    }
+
+    @NotNull
+    @Override
+    public final Map<String, Object> asMap() {
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + map;
+    }
+
+    private Object value(String key) {
+        if (!TYPED_KEYS.contains(key)) {
+            return getExtraProperties().get(key);
+        }
+        switch (key) {
+            case DISTRIBUTION_PACKAGE_ID:
+                return getPackageId();
+            case DISTRIBUTION_TYPE:
+                DistributionRequestType type = getRequestType();
+                return type != null ? type.name() : null;
+            case DISTRIBUTION_PATHS:
+                return getPaths();
+            case DISTRIBUTION_DEEP_PATHS:
+                return getDeepPaths();
+            case DISTRIBUTION_PACKAGE_SIZE:
+                long size = getPackageSize();
+                return size >= 0 ? size : null;
+            case DISTRIBUTION_PACKAGE_FINGERPRINT:
+                return getFingerprint();
+            default:
+                return null;
+        }
+    }
+
+    private final class View extends AbstractMap<String, Object> {
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? value((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @NotNull
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @NotNull
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return entries().iterator();
+                }
+
+                @Override
+                public int size() {
+                    return entries().size();
+                }
+            };
+        }
+
+        private List<Entry<String, Object>> entries() {
+            Map<String, Object> extra = getExtraProperties();
+            List<Entry<String, Object>> entries = new ArrayList<>(TYPED_KEYS.size() + extra.size());
+            for (String key : TYPED_KEYS) {
+                Object value = value(key);
+                if (value != null) {
+                    entries.add(new SimpleImmutableEntry<>(key, value));
+                }
+            }
+            for (Entry<String, Object> entry : extra.entrySet()) {
+                if (entry.getValue() != null && !TYPED_KEYS.contains(entry.getKey())) {
+                    entries.add(new SimpleImmutableEntry<>(entry));
+                }
+            }
+            return entries;
+        }
+    }
+}
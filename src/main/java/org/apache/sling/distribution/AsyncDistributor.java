@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * <p>
+ * A non-blocking variant of the {@link Distributor}.
+ * </p>
+ * <p>
+ * Instead of holding the calling thread for the whole create/transport/persist cycle, an asynchronous distributor
+ * returns a {@link DistributionCompletion} which allows the caller to react once the request has been accepted by
+ * the agent and once it reached its final state.
+ * </p>
+ */
+@ProviderType
+public interface AsyncDistributor {
+
+    /**
+     * Perform a {@link DistributionRequest} without blocking the calling thread.
+     *
+     * @param agentName the name of the agent used to distribute the request
+     * @param resourceResolver the resource resolver used for authorizing the request
+     * @param distributionRequest the distribution request
+     * @return a {@link DistributionCompletion} tracking the outcome of the request
+     */
+    @NotNull
+    DistributionCompletion distributeAsync(String agentName, ResourceResolver resourceResolver,
+                                           DistributionRequest distributionRequest);
+}
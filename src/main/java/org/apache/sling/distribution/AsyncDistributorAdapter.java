@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_ID;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.distribution.event.DistributionEventTopics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * <p>
+ * An {@link AsyncDistributor} wrapping an existing blocking {@link Distributor}.
+ * </p>
+ * <p>
+ * The wrapped {@link Distributor#distribute(String, ResourceResolver, DistributionRequest)} is invoked on the given
+ * {@link Executor}, the size of which bounds the number of requests being handed to agents concurrently.
+ * </p>
+ * <p>
+ * Responses in a final state complete both stages of the returned {@link DistributionCompletion}. For
+ * {@link DistributionRequestState#ACCEPTED} responses, the final state is taken from the
+ * {@link DistributionEventTopics#AGENT_PACKAGE_DISTRIBUTED}, {@link DistributionEventTopics#AGENT_PACKAGE_DROPPED},
+ * {@link DistributionEventTopics#AGENT_PACKAGE_CANCELLED}, {@link DistributionEventTopics#AGENT_PACKAGE_EXPIRED} and
+ * {@link DistributionEventTopics#AGENT_PACKAGE_SUPERSEDED} events whose package id matches the
+ * {@link DistributionResponseInfo#getId() response id}. To that end the adapter must be registered as an
+ * {@link EventHandler} for those topics. Accepted responses which carry no id cannot be tracked and complete both
+ * stages on acceptance.
+ * </p>
+ * <p>
+ * Accepted requests whose final state is not received within the completion timeout complete their
+ * {@link DistributionCompletion#whenCompleted() completion stage} exceptionally with a {@link TimeoutException}, so
+ * that lost events do not leave requests tracked forever. Events received while requests are being submitted are
+ * kept until all the submissions in flight when they were received return, as they may be for the packages being
+ * created, and are otherwise ignored.
+ * </p>
+ */
+public class AsyncDistributorAdapter implements AsyncDistributor, EventHandler {
+
+    private final Distributor distributor;
+
+    private final Executor executor;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long completionTimeoutMillis;
+
+    private final ConcurrentMap<String, PendingCompletion> pending = new ConcurrentHashMap<>();
+
+    /**
+     * orders the submission starts and the early outcomes, guarded by {@link #earlyOutcomes}
+     */
+    private long sequence;
+
+    /**
+     * the sequence numbers at which the requests being submitted started, guarded by {@link #earlyOutcomes}
+     */
+    private final TreeSet<Long> submissions = new TreeSet<>();
+
+    /**
+     * outcomes received while requests are being submitted, for packages which may reach their final state before
+     * the accepting call returns, in the order they were received
+     */
+    private final Map<String, EarlyOutcome> earlyOutcomes = new LinkedHashMap<>();
+
+    /**
+     * Creates an adapter dispatching requests to the given distributor.
+     * @param distributor the blocking distributor to wrap
+     * @param executor the executor running the blocking calls
+     * @param scheduler the scheduler expiring the accepted requests whose final state is not received in time
+     * @param completionTimeout the maximum time to wait for the final state of an accepted request
+     * @param unit the unit of the completion timeout
+     */
+    public AsyncDistributorAdapter(@NotNull Distributor distributor, @NotNull Executor executor,
+                                   @NotNull ScheduledExecutorService scheduler, long completionTimeout,
+                                   @NotNull TimeUnit unit) {
+        if (completionTimeout <= 0) {
+            throw new IllegalArgumentException("completionTimeout must be positive, was " + completionTimeout);
+        }
+        this.distributor = Objects.requireNonNull(distributor);
+        this.executor = Objects.requireNonNull(executor);
+        this.scheduler = Objects.requireNonNull(scheduler);
+        this.completionTimeoutMillis = unit.toMillis(completionTimeout);
+    }
+
+    @NotNull
+    @Override
+    public DistributionCompletion distributeAsync(String agentName, ResourceResolver resourceResolver,
+                                                  DistributionRequest distributionRequest) {
+        PendingCompletion completion = new PendingCompletion();
+        try {
+            executor.execute(() -> distribute(completion, agentName, resourceResolver, distributionRequest));
+        } catch (RuntimeException e) {
+            completion.fail(e);
+        }
+        return completion;
+    }
+
+    @Override
+    public void handleEvent(Event event) {
+        DistributionRequestState state = finalState(event.getTopic());
+        Object packageId = event.getProperty(DISTRIBUTION_PACKAGE_ID);
+        if (state == null || packageId == null) {
+            return;
+        }
+        String id = packageId.toString();
+        PendingCompletion completion = pending.remove(id);
+        if (completion == null) {
+            synchronized (earlyOutcomes) {
+                completion = pending.remove(id);
+                if (completion == null) {
+                    if (!submissions.isEmpty()) {
+                        earlyOutcomes.remove(id);
+                        earlyOutcomes.put(id, new EarlyOutcome(state, ++sequence));
+                    }
+                    return;
+                }
+            }
+        }
+        completion.complete(state);
+    }
+
+    private void distribute(PendingCompletion completion, String agentName, ResourceResolver resourceResolver,
+                            DistributionRequest distributionRequest) {
+        long started;
+        synchronized (earlyOutcomes) {
+            started = ++sequence;
+            submissions.add(started);
+        }
+        try {
+            submit(completion, agentName, resourceResolver, distributionRequest);
+        } finally {
+            synchronized (earlyOutcomes) {
+                submissions.remove(started);
+                // outcomes received before the oldest submission in flight started are not for its packages
+                long oldest = submissions.isEmpty() ? Long.MAX_VALUE : submissions.first();
+                Iterator<EarlyOutcome> outcomes = earlyOutcomes.values().iterator();
+                while (outcomes.hasNext() && outcomes.next().received < oldest) {
+                    outcomes.remove();
+                }
+            }
+        }
+    }
+
+    private void submit(PendingCompletion completion, String agentName, ResourceResolver resourceResolver,
+                        DistributionRequest distributionRequest) {
+        DistributionResponse response;
+        try {
+            response = distributor.distribute(agentName, resourceResolver, distributionRequest);
+        } catch (RuntimeException e) {
+            completion.fail(e);
+            return;
+        }
+        completion.accepted.complete(response);
+        DistributionResponseInfo info = response.getDistributionInfo();
+        String id = info != null ? info.getId() : "";
+        if (response.getState() != DistributionRequestState.ACCEPTED || id.isEmpty()) {
+            completion.completed.complete(response);
+            return;
+        }
+        completion.acceptedResponse = response;
+        // scheduled before the completion is published, so that whichever path completes it cancels the timeout
+        try {
+            completion.timeout = scheduler.schedule(() -> expire(id, completion), completionTimeoutMillis,
+                    TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            completion.completed.completeExceptionally(e);
+            return;
+        }
+        EarlyOutcome early;
+        synchronized (earlyOutcomes) {
+            early = earlyOutcomes.remove(id);
+            if (early == null) {
+                pending.put(id, completion);
+            }
+        }
+        if (early != null) {
+            completion.complete(early.state);
+        } else if (completion.completed.isDone()) {
+            // expired before being published
+            pending.remove(id, completion);
+        }
+    }
+
+    private void expire(String id, PendingCompletion completion) {
+        pending.remove(id, completion);
+        completion.completed.completeExceptionally(new TimeoutException("request " + id
+                + " did not reach a final state within " + completionTimeoutMillis + " ms"));
+    }
+
+    @Nullable
+    private static DistributionRequestState finalState(String topic) {
+        if (DistributionEventTopics.AGENT_PACKAGE_DISTRIBUTED.equals(topic)) {
+            return DistributionRequestState.DISTRIBUTED;
+        }
+        if (DistributionEventTopics.AGENT_PACKAGE_DROPPED.equals(topic)) {
+            return DistributionRequestState.DROPPED;
+        }
+        if (DistributionEventTopics.AGENT_PACKAGE_CANCELLED.equals(topic)) {
+            return DistributionRequestState.CANCELLED;
+        }
+        if (DistributionEventTopics.AGENT_PACKAGE_EXPIRED.equals(topic)) {
+            return DistributionRequestState.EXPIRED;
+        }
+        if (DistributionEventTopics.AGENT_PACKAGE_SUPERSEDED.equals(topic)) {
+            return DistributionRequestState.SUPERSEDED;
+        }
+        return null;
+    }
+
+    private static final class PendingCompletion implements DistributionCompletion {
+
+        private final CompletableFuture<DistributionResponse> accepted = new CompletableFuture<>();
+
+        private final CompletableFuture<DistributionResponse> completed = new CompletableFuture<>();
+
+        private volatile DistributionResponse acceptedResponse;
+
+        private volatile Future<?> timeout;
+
+        @NotNull
+        @Override
+        public CompletionStage<DistributionResponse> whenAccepted() {
+            return accepted;
+        }
+
+        @NotNull
+        @Override
+        public CompletionStage<DistributionResponse> whenCompleted() {
+            return completed;
+        }
+
+        void complete(DistributionRequestState state) {
+            completed.complete(new FinalDistributionResponse(state, acceptedResponse.getDistributionInfo()));
+            Future<?> scheduled = timeout;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        void fail(Throwable t) {
+            accepted.completeExceptionally(t);
+            completed.completeExceptionally(t);
+        }
+    }
+
+    private static final class EarlyOutcome {
+
+        private final DistributionRequestState state;
+
+        private final long received;
+
+        EarlyOutcome(DistributionRequestState state, long received) {
+            this.state = state;
+            this.received = received;
+        }
+    }
+
+    private static final class FinalDistributionResponse implements DistributionResponse {
+
+        private final DistributionRequestState state;
+
+        private final DistributionResponseInfo info;
+
+        FinalDistributionResponse(DistributionRequestState state, DistributionResponseInfo info) {
+            this.state = state;
+            this.info = info;
+        }
+
+        @Override
+        public boolean isSuccessful() {
+            return state == DistributionRequestState.DISTRIBUTED;
+        }
+
+        @NotNull
+        @Override
+        public DistributionRequestState getState() {
+            return state;
+        }
+
+        @Nullable
+        @Override
+        public String getMessage() {
+            return "request " + info.getId() + " completed with state " + state;
+        }
+
+        @NotNull
+        @Override
+        public DistributionResponseInfo getDistributionInfo() {
+            return info;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ * An immutable, memory compact set of paths. The paths are sorted in their natural {@link String} order and
+ * front coded in buckets: the first path of each bucket is stored in full, the following ones as the length of
+ * the prefix shared with their predecessor plus the remaining suffix. As sibling paths share long prefixes,
+ * e.g. {@code /content/dam/brand/en/...}, a set holds a fraction of the characters of the equivalent
+ * {@link String}s, without the per object overhead, in a single {@code char[]}.
+ * </p>
+ * <p>
+ * Lookups binary search the buckets and scan at most one bucket, without allocating. Iterating creates the
+ * {@link String}s on demand, so callers should prefer iterating the set to materialising it with {@link #toArray()}.
+ * </p>
+ */
+public final class CompactPathSet extends AbstractSet<String> {
+
+    private static final int BUCKET_SIZE = 16;
+
+    private static final CompactPathSet EMPTY = new CompactPathSet(new char[0], new int[0], 0, 0);
+
+    private final char[] data;
+
+    private final int[] buckets;
+
+    private final int size;
+
+    private final int maxLength;
+
+    private CompactPathSet(char[] data, int[] buckets, int size, int maxLength) {
+        this.data = data;
+        this.buckets = buckets;
+        this.size = size;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Creates a set of the given paths, {@code null} paths and duplicates are ignored.
+     * @param paths the paths
+     * @return the set
+     */
+    @NotNull
+    public static CompactPathSet of(@NotNull String... paths) {
+        return of(Arrays.asList(paths));
+    }
+
+    /**
+     * Creates a set of the given paths, {@code null} paths and duplicates are ignored.
+     * @param paths the paths
+     * @return the set
+     */
+    @NotNull
+    public static CompactPathSet of(@NotNull Collection<String> paths) {
+        if (paths instanceof CompactPathSet) {
+            return (CompactPathSet) paths;
+        }
+        String[] sorted = new String[paths.size()];
+        int count = 0;
+        for (String path : paths) {
+            if (path != null) {
+                sorted[count++] = path;
+            }
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(sorted, 0, count);
+        int[] buckets = new int[(count + BUCKET_SIZE - 1) / BUCKET_SIZE];
+        char[] data = new char[64];
+        int length = 0;
+        int size = 0;
+        int maxLength = 0;
+        String previous = null;
+        for (int i = 0; i < count; i++) {
+            String path = sorted[i];
+            if (path.equals(previous)) {
+                continue;
+            }
+            int prefix = 0;
+            if (size % BUCKET_SIZE == 0) {
+                buckets[size / BUCKET_SIZE] = length;
+            } else {
+                prefix = commonPrefix(previous, path);
+            }
+            int suffix = path.length() - prefix;
+            if (length + suffix + 4 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + suffix + 4));
+            }
+            if (size % BUCKET_SIZE != 0) {
+                length = writeLength(data, length, prefix);
+            }
+            length = writeLength(data, length, suffix);
+            path.getChars(prefix, path.length(), data, length);
+            length += suffix;
+            maxLength = Math.max(maxLength, path.length());
+            previous = path;
+            size++;
+        }
+        int bucketCount = (size + BUCKET_SIZE - 1) / BUCKET_SIZE;
+        return new CompactPathSet(Arrays.copyOf(data, length), Arrays.copyOf(buckets, bucketCount), size, maxLength);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String) || size == 0) {
+            return false;
+        }
+        String path = (String) o;
+        int low = 0;
+        int high = buckets.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (compareHead(mid, path) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return scanBucket(low, path);
+    }
+
+    /**
+     * Looks a path up in a bucket without decoding the entries: the entries are compared with the path through
+     * their shared prefix length, only the characters of the suffixes being read.
+     */
+    private boolean scanBucket(int bucket, String path) {
+        int offset = buckets[bucket];
+        int end = Math.min(size, (bucket + 1) * BUCKET_SIZE);
+        // length of the prefix the last entry shares with the path, all the entries read so far being lower
+        int matched = 0;
+        for (int i = bucket * BUCKET_SIZE; i < end; i++) {
+            int prefix = 0;
+            if (i % BUCKET_SIZE != 0) {
+                prefix = readLength(data, offset);
+                offset += lengthSize(data, offset);
+            }
+            int suffix = readLength(data, offset);
+            offset += lengthSize(data, offset);
+            if (prefix < matched) {
+                // the entry differs from its predecessor where the predecessor still matched the path
+                return false;
+            }
+            if (prefix == matched) {
+                int j = 0;
+                while (j < suffix && prefix + j < path.length() && data[offset + j] == path.charAt(prefix + j)) {
+                    j++;
+                }
+                if (j == suffix && prefix + j == path.length()) {
+                    return true;
+                }
+                if (j < suffix && (prefix + j == path.length() || data[offset + j] > path.charAt(prefix + j))) {
+                    return false;
+                }
+                matched = prefix + j;
+            }
+            offset += suffix;
+        }
+        return false;
+    }
+
+    @NotNull
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+
+            private final Cursor cursor = new Cursor(0);
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public String next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                index++;
+                cursor.advance();
+                return cursor.toString();
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<String> spliterator() {
+        return Spliterators.spliterator(this, Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SORTED
+                | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    private int compareHead(int bucket, String path) {
+        int offset = buckets[bucket];
+        int length = readLength(data, offset);
+        offset += lengthSize(data, offset);
+        int n = Math.min(length, path.length());
+        for (int i = 0; i < n; i++) {
+            int cmp = data[offset + i] - path.charAt(i);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - path.length();
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < n && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // lengths below 0x8000 take one char, larger ones two chars with the highest bit of the first one set
+
+    private static int writeLength(char[] data, int offset, int value) {
+        if (value < 0x8000) {
+            data[offset] = (char) value;
+            return offset + 1;
+        }
+        data[offset] = (char) (0x8000 | (value >>> 16));
+        data[offset + 1] = (char) value;
+        return offset + 2;
+    }
+
+    private static int readLength(char[] data, int offset) {
+        char c = data[offset];
+        if (c < 0x8000) {
+            return c;
+        }
+        return ((c & 0x7FFF) << 16) | data[offset + 1];
+    }
+
+    private static int lengthSize(char[] data, int offset) {
+        return data[offset] < 0x8000 ? 1 : 2;
+    }
+
+    /**
+     * Decodes the paths sequentially into a reusable buffer.
+     */
+    private final class Cursor {
+
+        private final char[] buffer = new char[maxLength];
+
+        private int length;
+
+        private int offset;
+
+        private int index;
+
+        Cursor(int index) {
+            this.index = index;
+            this.offset = index < size ? buckets[index / BUCKET_SIZE] : data.length;
+        }
+
+        void advance() {
+            int prefix = 0;
+            if (index % BUCKET_SIZE != 0) {
+                prefix = readLength(data, offset);
+                offset += lengthSize(data, offset);
+            }
+            int suffix = readLength(data, offset);
+            offset += lengthSize(data, offset);
+            System.arraycopy(data, offset, buffer, prefix, suffix);
+            offset += suffix;
+            length = prefix + suffix;
+            index++;
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, 0, length);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * A parsed and compiled form of the filters returned by {@link DistributionRequest#getFilters(String)}.
+ * </p>
+ * <p>
+ * Each filter is made of a {@code +} (include) or {@code -} (exclude) sign followed by a regular expression which
+ * has to match the whole path, e.g. {@code +/foo/.*} includes all content under {@code /foo} and {@code -/foo}
+ * excludes the {@code /foo} node. Filters are checked in order and the last matching filter determines inclusion.
+ * Paths matched by no filter are included if the first filter is an exclusion and excluded otherwise, while an empty
+ * list of filters includes every path.
+ * </p>
+ * <p>
+ * Literal filters and filters made of a literal prefix followed by {@code .*} are evaluated with plain string
+ * comparisons, the remaining filters are fused into a single regular expression so that each path is matched once.
+ * Instances are immutable and thread safe.
+ * </p>
+ */
+public final class CompiledPathFilter {
+
+    /**
+     * A filter including every path.
+     */
+    public static final CompiledPathFilter INCLUDE_ALL = new CompiledPathFilter(new Rule[0], true, null, new int[0]);
+
+    private static final String METACHARACTERS = "\\[]{}()*+?^$|.";
+
+    private final Rule[] rules;
+
+    private final boolean includeByDefault;
+
+    private final Pattern fused;
+
+    private final int[] regexRules;
+
+    private CompiledPathFilter(Rule[] rules, boolean includeByDefault, @Nullable Pattern fused, int[] regexRules) {
+        this.rules = rules;
+        this.includeByDefault = includeByDefault;
+        this.fused = fused;
+        this.regexRules = regexRules;
+    }
+
+    /**
+     * Compiles the given filters.
+     * @param filters the filters, as returned by {@link DistributionRequest#getFilters(String)}
+     * @return the compiled filter
+     * @throws IllegalArgumentException if one of the filters is not a valid regular expression
+     */
+    @NotNull
+    public static CompiledPathFilter compile(@Nullable String... filters) {
+        if (filters == null || filters.length == 0) {
+            return INCLUDE_ALL;
+        }
+        Rule[] rules = new Rule[filters.length];
+        List<Integer> regexIndexes = new ArrayList<>();
+        for (int i = 0; i < filters.length; i++) {
+            rules[i] = Rule.parse(i, filters[i]);
+            if (rules[i].kind == Rule.REGEX) {
+                regexIndexes.add(i);
+            }
+        }
+        int[] regexRules = new int[regexIndexes.size()];
+        for (int i = 0; i < regexRules.length; i++) {
+            regexRules[i] = regexIndexes.get(i);
+        }
+        Pattern fused = null;
+        if (regexRules.length > 1 && canFuse(rules, regexRules)) {
+            // alternatives are tried from left to right, listing the rules last to first makes the last
+            // matching rule win
+            StringBuilder expression = new StringBuilder();
+            for (int i = regexRules.length - 1; i >= 0; i--) {
+                if (expression.length() > 0) {
+                    expression.append('|');
+                }
+                expression.append("(?<").append(groupName(regexRules[i])).append('>')
+                        .append(rules[regexRules[i]].expression).append(')');
+            }
+            fused = Pattern.compile(expression.toString());
+        }
+        return new CompiledPathFilter(rules, !rules[0].include, fused, regexRules);
+    }
+
+    /**
+     * Returns whether a path is included by the filters.
+     * @param path the path to be checked
+     * @return <code>true</code> if the path is included
+     */
+    public boolean matches(@NotNull String path) {
+        int winner = -1;
+        for (int i = rules.length - 1; i >= 0; i--) {
+            Rule rule = rules[i];
+            if (rule.kind != Rule.REGEX && rule.matches(path)) {
+                winner = i;
+                break;
+            }
+        }
+        if (regexRules.length > 0 && regexRules[regexRules.length - 1] > winner) {
+            winner = Math.max(winner, matchRegexRules(path));
+        }
+        return winner < 0 ? includeByDefault : rules[winner].include;
+    }
+
+    /**
+     * Returns whether this filter includes every path, i.e. it was compiled from an empty list of filters.
+     * @return <code>true</code> if there are no filters
+     */
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    private int matchRegexRules(String path) {
+        if (fused != null) {
+            Matcher matcher = fused.matcher(path);
+            if (matcher.matches()) {
+                for (int i = regexRules.length - 1; i >= 0; i--) {
+                    if (matcher.start(rules[regexRules[i]].group) >= 0) {
+                        return regexRules[i];
+                    }
+                }
+            }
+            return -1;
+        }
+        for (int i = regexRules.length - 1; i >= 0; i--) {
+            if (rules[regexRules[i]].matches(path)) {
+                return regexRules[i];
+            }
+        }
+        return -1;
+    }
+
+    private static String groupName(int rule) {
+        return "r" + rule;
+    }
+
+    private static boolean canFuse(Rule[] rules, int[] regexRules) {
+        for (int rule : regexRules) {
+            // group references would change meaning once the expressions are wrapped into groups
+            if (rules[rule].expression.matches(".*\\\\(\\d|k<).*")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLiteral(String expression) {
+        for (int i = 0; i < expression.length(); i++) {
+            if (METACHARACTERS.indexOf(expression.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Rule {
+
+        static final int LITERAL = 0;
+
+        static final int PREFIX = 1;
+
+        static final int REGEX = 2;
+
+        private final boolean include;
+
+        private final String expression;
+
+        private final int kind;
+
+        private final String literal;
+
+        private final Pattern pattern;
+
+        private final String group;
+
+        private Rule(boolean include, String expression, int kind, String literal, Pattern pattern, String group) {
+            this.include = include;
+            this.expression = expression;
+            this.kind = kind;
+            this.literal = literal;
+            this.pattern = pattern;
+            this.group = group;
+        }
+
+        static Rule parse(int index, String filter) {
+            boolean include = !filter.startsWith("-");
+            String expression = filter.startsWith("+") || filter.startsWith("-") ? filter.substring(1) : filter;
+            if (isLiteral(expression)) {
+                return new Rule(include, expression, LITERAL, expression, null, null);
+            }
+            if (expression.endsWith(".*")) {
+                String prefix = expression.substring(0, expression.length() - 2);
+                if (isLiteral(prefix)) {
+                    return new Rule(include, expression, PREFIX, prefix, null, null);
+                }
+            }
+            return new Rule(include, expression, REGEX, null, Pattern.compile(expression), groupName(index));
+        }
+
+        boolean matches(String path) {
+            switch (kind) {
+                case LITERAL:
+                    return literal.equals(path);
+                case PREFIX:
+                    return path.startsWith(literal);
+                default:
+                    return pattern.matcher(path).matches();
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.Locale;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * <p>
+ * A marker of content already present on the target instance, carried by a {@link DistributionRequest} to ask for
+ * an incremental distribution: agents supporting it may only package the content changed since the baseline.
+ * </p>
+ * <p>
+ * The baseline is a hint, agents not supporting it, or unable to resolve it, distribute the content in full, which
+ * is always correct. Baselines are immutable and have a string form, {@code <kind>:<value>}, used in events.
+ * </p>
+ */
+@ProviderType
+public final class DistributionBaseline {
+
+    /**
+     * The kinds of baseline markers.
+     */
+    public enum Kind {
+
+        /**
+         * A revision of the content repository
+         */
+        REVISION,
+
+        /**
+         * A point in time, in milliseconds since the epoch
+         */
+        TIMESTAMP,
+
+        /**
+         * The identifier of a manifest of checksums of the content present on the target
+         */
+        MANIFEST
+    }
+
+    private final Kind kind;
+
+    private final String value;
+
+    private DistributionBaseline(Kind kind, String value) {
+        this.kind = Objects.requireNonNull(kind);
+        this.value = Objects.requireNonNull(value);
+    }
+
+    /**
+     * Creates a baseline for a repository revision.
+     * @param revision the revision
+     * @return the baseline
+     */
+    @NotNull
+    public static DistributionBaseline revision(@NotNull String revision) {
+        return new DistributionBaseline(Kind.REVISION, revision);
+    }
+
+    /**
+     * Creates a baseline for a point in time.
+     * @param timestamp the time in milliseconds since the epoch
+     * @return the baseline
+     */
+    @NotNull
+    public static DistributionBaseline timestamp(long timestamp) {
+        return new DistributionBaseline(Kind.TIMESTAMP, Long.toString(timestamp));
+    }
+
+    /**
+     * Creates a baseline for a checksum manifest.
+     * @param manifestId the identifier of the manifest
+     * @return the baseline
+     */
+    @NotNull
+    public static DistributionBaseline manifest(@NotNull String manifestId) {
+        return new DistributionBaseline(Kind.MANIFEST, manifestId);
+    }
+
+    /**
+     * Parses the string form of a baseline.
+     * @param baseline the string form, as returned by {@link #toString()}
+     * @return the baseline, or {@code null} if the string is {@code null} or not a valid baseline
+     */
+    @Nullable
+    public static DistributionBaseline parse(@Nullable String baseline) {
+        if (baseline == null) {
+            return null;
+        }
+        int separator = baseline.indexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        Kind kind;
+        try {
+            kind = Kind.valueOf(baseline.substring(0, separator).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String value = baseline.substring(separator + 1);
+        if (kind == Kind.TIMESTAMP) {
+            try {
+                Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return new DistributionBaseline(kind, value);
+    }
+
+    /**
+     * get the kind of this baseline
+     *
+     * @return the kind
+     */
+    @NotNull
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * get the value of this baseline, the revision, the timestamp or the manifest identifier
+     *
+     * @return the value
+     */
+    @NotNull
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DistributionBaseline)) {
+            return false;
+        }
+        DistributionBaseline that = (DistributionBaseline) o;
+        return kind == that.kind && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * kind.hashCode() + value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return kind.name().toLowerCase(Locale.ROOT) + ":" + value;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.concurrent.CompletionStage;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * A {@link DistributionCompletion} tracks the outcome of a {@link DistributionRequest} handed to an
+ * {@link AsyncDistributor}.
+ * <p>
+ * Each of the stages completes exactly once. Requests that are executed synchronously or that are not accepted
+ * at all complete both stages with the same final {@link DistributionResponse}.
+ * </p>
+ */
+@ProviderType
+public interface DistributionCompletion {
+
+    /**
+     * returns a stage completing as soon as the request has been accepted by the agent, i.e. with a response
+     * in the {@link DistributionRequestState#ACCEPTED} state, or with the final response if the request was never
+     * accepted.
+     *
+     * @return the stage completing on acceptance
+     */
+    @NotNull
+    CompletionStage<DistributionResponse> whenAccepted();
+
+    /**
+     * returns a stage completing once the request has reached its final state, e.g.
+     * {@link DistributionRequestState#DISTRIBUTED} or {@link DistributionRequestState#DROPPED}.
+     *
+     * @return the stage completing on the final state
+     */
+    @NotNull
+    CompletionStage<DistributionResponse> whenCompleted();
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * An immutable index over the paths of a {@link DistributionRequest}, organised as a trie of path segments.
+ * </p>
+ * <p>
+ * The index answers whether a node is covered by the request, which requested path governs it and which filters
+ * apply to it by walking the segments of the node path once, i.e. in O(depth) time and without allocating. It
+ * is meant to be built once per request and queried for every node visited while assembling the content.
+ * </p>
+ * <p>
+ * A node is governed by the requested path it is equal to or, failing that, by the closest ancestor requested as deep.
+ * Empty path segments are ignored, hence {@code /content/a/} and {@code /content/a} denote the same node.
+ * </p>
+ */
+public final class DistributionPathIndex {
+
+    private static final String[] NO_FILTERS = new String[0];
+
+    private final Node top;
+
+    private DistributionPathIndex(Node top) {
+        this.top = top;
+    }
+
+    /**
+     * Builds the index for the paths of a request.
+     * @param request the request to index
+     * @return the index
+     */
+    @NotNull
+    public static DistributionPathIndex of(@NotNull DistributionRequest request) {
+        NodeBuilder top = new NodeBuilder();
+        for (String path : request.getPaths()) {
+            NodeBuilder node = top;
+            int start = 0;
+            while ((start = nextSegmentStart(path, start)) < path.length()) {
+                int end = segmentEnd(path, start);
+                node = node.children.computeIfAbsent(path.substring(start, end), name -> new NodeBuilder());
+                start = end;
+            }
+            if (node.root == null) {
+                node.root = path;
+                node.deep = request.isDeep(path);
+                node.filters = request.getFilters(path);
+            }
+        }
+        return new DistributionPathIndex(top.build());
+    }
+
+    /**
+     * Returns whether a node is covered by the request, i.e. whether it is one of the requested paths or a
+     * descendant of a deep requested path.
+     * @param path the path of the node
+     * @return <code>true</code> if the node is covered
+     */
+    public boolean isCovered(@NotNull String path) {
+        return find(path) != null;
+    }
+
+    /**
+     * Returns the requested path governing a node.
+     * @param path the path of the node
+     * @return the requested path governing the node, or {@code null} if the node is not covered
+     */
+    @Nullable
+    public String getRoot(@NotNull String path) {
+        Node node = find(path);
+        return node != null ? node.root : null;
+    }
+
+    /**
+     * Returns the filters applicable to a node, i.e. the filters of the requested path governing it.
+     * @param path the path of the node
+     * @return the filters, empty if the node is not covered or the governing path has no filters
+     */
+    @NotNull
+    public String[] getFilters(@NotNull String path) {
+        Node node = find(path);
+        return node != null ? node.filters : NO_FILTERS;
+    }
+
+    @Nullable
+    private Node find(String path) {
+        Node node = top;
+        Node governing = top.root != null && top.deep ? top : null;
+        int start = 0;
+        while ((start = nextSegmentStart(path, start)) < path.length()) {
+            int end = segmentEnd(path, start);
+            node = node.child(path, start, end);
+            if (node == null) {
+                return governing;
+            }
+            if (node.root != null && node.deep) {
+                governing = node;
+            }
+            start = end;
+        }
+        return node.root != null ? node : governing;
+    }
+
+    private static int nextSegmentStart(String path, int from) {
+        while (from < path.length() && path.charAt(from) == '/') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int segmentEnd(String path, int start) {
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.length() : end;
+    }
+
+    private static final class Node {
+
+        private static final String[] NO_NAMES = new String[0];
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private final String[] names;
+
+        private final Node[] children;
+
+        private final String root;
+
+        private final boolean deep;
+
+        private final String[] filters;
+
+        Node(String[] names, Node[] children, String root, boolean deep, String[] filters) {
+            this.names = names;
+            this.children = children;
+            this.root = root;
+            this.deep = deep;
+            this.filters = filters;
+        }
+
+        @Nullable
+        Node child(String path, int start, int end) {
+            int low = 0;
+            int high = names.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(names[mid], path, start, end);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+
+        private static int compare(String name, String path, int start, int end) {
+            int length = end - start;
+            int limit = Math.min(name.length(), length);
+            for (int i = 0; i < limit; i++) {
+                int diff = name.charAt(i) - path.charAt(start + i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return name.length() - length;
+        }
+    }
+
+    private static final class NodeBuilder {
+
+        private final Map<String, NodeBuilder> children = new TreeMap<>();
+
+        private String root;
+
+        private boolean deep;
+
+        private String[] filters = NO_FILTERS;
+
+        Node build() {
+            if (children.isEmpty()) {
+                return new Node(Node.NO_NAMES, Node.NO_CHILDREN, root, deep, filters);
+            }
+            String[] names = new String[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<String, NodeBuilder> entry : children.entrySet()) {
+                names[i] = entry.getKey();
+                nodes[i++] = entry.getValue().build();
+            }
+            return new Node(names, nodes, root, deep, filters);
+        }
+    }
+}
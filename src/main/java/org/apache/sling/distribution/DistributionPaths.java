@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.Comparator;
+
+/**
+ * Helpers for checking and comparing repository paths.
+ */
+final class DistributionPaths {
+
+    /**
+     * Orders paths so that each path is directly followed by its descendants, i.e. {@code /a}, {@code /a/b},
+     * {@code /a-b} rather than the lexicographic {@code /a}, {@code /a-b}, {@code /a/b}.
+     */
+    static final Comparator<String> HIERARCHICAL_ORDER = DistributionPaths::compare;
+
+    private DistributionPaths() {
+    }
+
+    /**
+     * Returns whether a path is a strict descendant of another one.
+     * @param ancestor the candidate ancestor
+     * @param path the path to be checked
+     * @return <code>true</code> if {@code path} is below {@code ancestor}
+     */
+    static boolean isAncestor(String ancestor, String path) {
+        int length = ancestor.length();
+        if (path.length() <= length || !path.startsWith(ancestor)) {
+            return false;
+        }
+        return (length > 0 && ancestor.charAt(length - 1) == '/') || path.charAt(length) == '/';
+    }
+
+    /**
+     * Returns whether a path has any non whitespace character.
+     * @param path the path to be checked
+     * @return <code>true</code> if {@code path} is neither {@code null} nor blank
+     */
+    static boolean notEmpty(String path) {
+        if (path == null) return false;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) > ' ') return true;
+        }
+        return false;
+    }
+
+    private static int compare(String first, String second) {
+        int limit = Math.min(first.length(), second.length());
+        for (int i = 0; i < limit; i++) {
+            char a = first.charAt(i);
+            char b = second.charAt(i);
+            if (a != b) {
+                if (a == '/') {
+                    return -1;
+                }
+                if (b == '/') {
+                    return 1;
+                }
+                return a - b;
+            }
+        }
+        return first.length() - second.length();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * The phases a {@link DistributionRequest} goes through while being distributed, as reported by
+ * {@link DistributionResponseMetrics}.
+ */
+@ProviderType
+public enum DistributionPhase {
+
+    /**
+     * Creation of the package holding the content to be distributed
+     */
+    PACKAGE_CREATION,
+
+    /**
+     * Time spent by the package in the distribution queues
+     */
+    QUEUEING,
+
+    /**
+     * Transport of the package to the target instance
+     */
+    TRANSPORT,
+
+    /**
+     * Import of the package on the target instance
+     */
+    IMPORT,
+
+    /**
+     * Invalidation of the caches for the distributed content
+     */
+    INVALIDATION
+}
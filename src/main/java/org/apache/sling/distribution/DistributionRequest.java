@@ -18,7 +18,11 @@
  */
 package org.apache.sling.distribution;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
+
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.osgi.annotation.versioning.ProviderType;
 
 /**
@@ -37,6 +41,38 @@ public interface DistributionRequest {
     @NotNull
     DistributionRequestType getRequestType();
 
+    /**
+     * Get the {@link DistributionRequestPriority} of this request, agents may use it to schedule the requests
+     * of a queue
+     *
+     * @return the priority of the request, {@link DistributionRequestPriority#NORMAL} by default
+     */
+    @NotNull
+    default DistributionRequestPriority getPriority() {
+        return DistributionRequestPriority.NORMAL;
+    }
+
+    /**
+     * Get the {@link DistributionBaseline} of this request, asking for an incremental distribution of the content
+     * changed since the baseline
+     *
+     * @return the baseline, or {@code null} to distribute the content in full
+     */
+    @Nullable
+    default DistributionBaseline getBaseline() {
+        return null;
+    }
+
+    /**
+     * Get the deadline of this request, agents drop the request in the {@link DistributionRequestState#EXPIRED}
+     * state if its content has not been transported by then
+     *
+     * @return the deadline in milliseconds since the epoch, or {@code -1} if the request does not expire
+     */
+    default long getDeadline() {
+        return -1;
+    }
+
     /**
      * Get the root paths for this distribution request
      *
@@ -45,6 +81,19 @@ public interface DistributionRequest {
     @NotNull
     public String[] getPaths();
 
+    /**
+     * Get the root paths for this distribution request as a {@link Spliterator}, allowing to process the paths
+     * incrementally. Requests holding a large number of paths may provide them lazily without ever materialising
+     * the whole array returned by {@link #getPaths()}, and report the number of paths, when known, through
+     * {@link Spliterator#estimateSize()}.
+     *
+     * @return a spliterator over the paths
+     */
+    @NotNull
+    default Spliterator<String> getPathSpliterator() {
+        return Spliterators.spliterator(getPaths(), Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+
     /**
      * Returns whether the paths are covering the entire subtree (deep) or just the specified nodes (shallow)
      *
@@ -66,4 +115,16 @@ public interface DistributionRequest {
      */
     @NotNull
     public String[] getFilters(String path);
+
+    /**
+     * Get the filters applicable for a specific path in their compiled form.
+     * Implementations are encouraged to compile the filters of each path only once.
+     *
+     * @param path the path to get applicable filters for
+     * @return the compiled filters
+     */
+    @NotNull
+    default CompiledPathFilter getCompiledFilter(String path) {
+        return CompiledPathFilter.compile(getFilters(path));
+    }
 }
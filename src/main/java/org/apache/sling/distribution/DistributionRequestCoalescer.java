@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ * Merges compatible {@link DistributionRequest}s into the smallest set of requests, so that many small requests
+ * can be distributed as few packages.
+ * </p>
+ * <p>
+ * Two requests are compatible when they have the same {@link DistributionRequestType}, the same
+ * {@link DistributionRequestPriority}, the same {@link DistributionBaseline}, the same
+ * {@link DistributionRequest#getDeadline() deadline} and every path they have in common is requested with the same
+ * deep flag and the same filters. The merged request distributes the union of the paths, keeping the deep flag and
+ * the filters of each path, hence it is equivalent to distributing each of the source requests, and it expires when
+ * they would.
+ * </p>
+ * <p>
+ * The groups are returned in the order they have been opened. A request is never merged into a group preceding
+ * another group with overlapping paths, i.e. equal paths or paths one of which is an ancestor of the other, so that
+ * requests touching the same content are distributed in their original order, e.g. {@code ADD /a}, {@code DELETE /a},
+ * {@code ADD /a} results in three groups.
+ * </p>
+ * <p>
+ * Coalescer instances are immutable and can be reused concurrently.
+ * </p>
+ */
+public final class DistributionRequestCoalescer {
+
+    private final int maxPaths;
+
+    /**
+     * Creates a coalescer which does not limit the size of the merged requests.
+     */
+    public DistributionRequestCoalescer() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a coalescer limiting the number of paths of each merged request.
+     * A single source request exceeding the limit is never split.
+     * @param maxPaths the maximum number of paths in a merged request
+     */
+    public DistributionRequestCoalescer(int maxPaths) {
+        if (maxPaths < 1) {
+            throw new IllegalArgumentException("maxPaths must be positive, was " + maxPaths);
+        }
+        this.maxPaths = maxPaths;
+    }
+
+    /**
+     * Coalesces the given requests.
+     * @param requests the requests to be merged
+     * @return the merged requests, each one referencing the position of the source requests it covers
+     */
+    @NotNull
+    public List<Group> coalesce(@NotNull Collection<? extends DistributionRequest> requests) {
+        List<GroupBuilder> builders = new ArrayList<>();
+        int index = 0;
+        for (DistributionRequest request : requests) {
+            GroupBuilder target = null;
+            for (int i = builders.size() - 1; i >= 0; i--) {
+                GroupBuilder candidate = builders.get(i);
+                if (candidate.accepts(request)) {
+                    target = candidate;
+                    break;
+                }
+                if (candidate.overlaps(request)) {
+                    break;
+                }
+            }
+            if (target == null) {
+                target = new GroupBuilder(request);
+                builders.add(target);
+            }
+            target.add(index++, request);
+        }
+        List<Group> groups = new ArrayList<>(builders.size());
+        for (GroupBuilder builder : builders) {
+            groups.add(builder.build());
+        }
+        return groups;
+    }
+
+    /**
+     * A merged request along with the positions of the source requests it covers.
+     */
+    public static final class Group {
+
+        private final DistributionRequest request;
+
+        private final int[] indexes;
+
+        private Group(DistributionRequest request, int[] indexes) {
+            this.request = request;
+            this.indexes = indexes;
+        }
+
+        /**
+         * get the merged request
+         *
+         * @return the request to be distributed
+         */
+        @NotNull
+        public DistributionRequest getRequest() {
+            return request;
+        }
+
+        /**
+         * get the positions, in the coalesced collection, of the requests merged into this group
+         *
+         * @return the positions in ascending order
+         */
+        @NotNull
+        public int[] getIndexes() {
+            return indexes.clone();
+        }
+    }
+
+    private final class GroupBuilder {
+
+        private final DistributionRequestType type;
+
+        private final DistributionRequestPriority priority;
+
+        private final DistributionBaseline baseline;
+
+        private final long deadline;
+
+        private final Map<String, PathEntry> entries = new LinkedHashMap<>();
+
+        private final NavigableSet<String> sortedPaths = new TreeSet<>(DistributionPaths.HIERARCHICAL_ORDER);
+
+        private int[] indexes = new int[4];
+
+        private int size;
+
+        GroupBuilder(DistributionRequest request) {
+            this.type = request.getRequestType();
+            this.priority = request.getPriority();
+            this.baseline = request.getBaseline();
+            this.deadline = request.getDeadline();
+        }
+
+        boolean accepts(DistributionRequest request) {
+            if (request.getRequestType() != type || request.getPriority() != priority
+                    || !Objects.equals(request.getBaseline(), baseline) || request.getDeadline() != deadline) {
+                return false;
+            }
+            int added = 0;
+            for (String path : request.getPaths()) {
+                PathEntry entry = entries.get(path);
+                if (entry == null) {
+                    added++;
+                } else if (!entry.matches(request.isDeep(path), request.getFilters(path))) {
+                    return false;
+                }
+            }
+            return entries.size() + added <= maxPaths;
+        }
+
+        boolean overlaps(DistributionRequest request) {
+            for (String path : request.getPaths()) {
+                String next = sortedPaths.ceiling(path);
+                if (next != null && (next.equals(path) || DistributionPaths.isAncestor(path, next))) {
+                    return true;
+                }
+                for (int i = path.lastIndexOf('/'); i >= 0; i = path.lastIndexOf('/', i - 1)) {
+                    String ancestor = i == 0 ? "/" : path.substring(0, i);
+                    if (sortedPaths.contains(ancestor)) {
+                        return true;
+                    }
+                    if (i == 0) {
+                        break;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void add(int index, DistributionRequest request) {
+            for (String path : request.getPaths()) {
+                if (entries.putIfAbsent(path, new PathEntry(request.isDeep(path), request.getFilters(path))) == null) {
+                    sortedPaths.add(path);
+                }
+            }
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+            }
+            indexes[size++] = index;
+        }
+
+        Group build() {
+            SimpleDistributionRequest.Builder builder = SimpleDistributionRequest.builder(type)
+                    .priority(priority)
+                    .baseline(baseline)
+                    .deadline(deadline);
+            for (Map.Entry<String, PathEntry> entry : entries.entrySet()) {
+                builder.addPath(entry.getKey(), entry.getValue().deep, entry.getValue().filters);
+            }
+            return new Group(builder.build(), Arrays.copyOf(indexes, size));
+        }
+    }
+
+    private static final class PathEntry {
+
+        private final boolean deep;
+
+        private final String[] filters;
+
+        PathEntry(boolean deep, String[] filters) {
+            this.deep = deep;
+            this.filters = filters;
+        }
+
+        boolean matches(boolean deep, String[] filters) {
+            return this.deep == deep && Arrays.equals(this.filters, filters);
+        }
+    }
+}
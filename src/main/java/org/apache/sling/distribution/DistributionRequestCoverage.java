@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ * Compares the content distributed by {@link DistributionRequest}s, allowing agents to discard a queued request
+ * which is fully covered by a newer one, in the {@link DistributionRequestState#SUPERSEDED} state.
+ * </p>
+ * <p>
+ * The comparison is conservative: a request only covers another one if distributing it is guaranteed to distribute
+ * at least the same content, at least as soon. Both requests must have the same {@link DistributionRequestType} and
+ * the same {@link DistributionBaseline}, the newer request must have at least the {@link DistributionRequestPriority}
+ * of the older one and must not expire before it, and each path of the older request must either be requested by the
+ * newer one, as deep if it was deep, with no filters or the same filters, or be below a deep path of the newer request
+ * without filters.
+ * </p>
+ */
+public final class DistributionRequestCoverage {
+
+    private DistributionRequestCoverage() {
+    }
+
+    /**
+     * Returns whether a request covers another one, i.e. whether distributing {@code newer} also distributes all
+     * the content of {@code older}. The comparison takes O(n d) time for n paths in {@code older} of depth d,
+     * once the index of {@code newer} is built.
+     * @param newer the covering request
+     * @param older the covered request
+     * @return <code>true</code> if {@code newer} covers {@code older}
+     */
+    public static boolean covers(@NotNull DistributionRequest newer, @NotNull DistributionRequest older) {
+        if (newer.getRequestType() != older.getRequestType()
+                || !Objects.equals(newer.getBaseline(), older.getBaseline())
+                || newer.getPriority().getWeight() < older.getPriority().getWeight()
+                || expiresBefore(newer.getDeadline(), older.getDeadline())) {
+            return false;
+        }
+        DistributionPathIndex index = newer instanceof SimpleDistributionRequest
+                ? ((SimpleDistributionRequest) newer).getPathIndex()
+                : DistributionPathIndex.of(newer);
+        for (String path : older.getPaths()) {
+            String root = index.getRoot(path);
+            if (root == null) {
+                return false;
+            }
+            String[] filters = newer.getFilters(root);
+            if (DistributionPaths.isAncestor(root, path)) {
+                if (filters.length > 0) {
+                    return false;
+                }
+            } else {
+                if (older.isDeep(path) && !newer.isDeep(root)) {
+                    return false;
+                }
+                if (filters.length > 0 && !Arrays.equals(filters, older.getFilters(path))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean expiresBefore(long deadline, long otherDeadline) {
+        return deadline >= 0 && (otherDeadline < 0 || deadline < otherDeadline);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * A {@link DistributionRequestHandle} allows the caller of a {@link DistributionRequest} to cancel it once it
+ * has been {@link DistributionRequestState#ACCEPTED accepted}, as returned by
+ * {@link DistributionResponse#getRequestHandle()}.
+ */
+@ProviderType
+public interface DistributionRequestHandle {
+
+    /**
+     * A handle for requests which cannot be cancelled, e.g. requests already in a final state
+     */
+    DistributionRequestHandle NONE = new DistributionRequestHandle() {
+        @Override public boolean cancel() {
+            return false;
+        }
+
+        @Override public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    /**
+     * Cancels the request, the agent removes it from its queues and reports it in the
+     * {@link DistributionRequestState#CANCELLED} state. A request whose content is already being transported
+     * cannot be cancelled.
+     *
+     * @return <code>true</code> if the request has been cancelled by this call
+     */
+    boolean cancel();
+
+    /**
+     * returns whether the request has been cancelled
+     *
+     * @return <code>true</code> if the request has been cancelled
+     */
+    boolean isCancelled();
+}
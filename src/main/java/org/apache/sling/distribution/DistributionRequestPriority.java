@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.Locale;
+
+import org.jetbrains.annotations.Nullable;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * <p>
+ * The priority class of a {@link DistributionRequest}, telling agents how urgently the request should be
+ * distributed relative to the other requests in the same queue.
+ * </p>
+ * <p>
+ * Each class has a weight, agents scheduling with weighted fair queuing serve the classes in proportion to their
+ * weights, so that interactive requests are not starved by bulk activations while the latter still progress.
+ * </p>
+ */
+@ProviderType
+public enum DistributionRequestPriority {
+
+    /**
+     * Priority for requests a user is waiting for, e.g. publishing a page
+     */
+    INTERACTIVE(8),
+
+    /**
+     * Default priority
+     */
+    NORMAL(4),
+
+    /**
+     * Priority for large activations, e.g. a tree or a bulk import
+     */
+    BULK(2),
+
+    /**
+     * Priority for maintenance requests with no latency expectation
+     */
+    BACKGROUND(1);
+
+    private final int weight;
+
+    DistributionRequestPriority(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * get the weight of this priority for weighted fair queuing, higher weights get a larger share
+     *
+     * @return the weight, a positive integer
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Creates a priority for the given name. if the name cannot be mapped to a enum type or if
+     * it's {@code null}, {@code null} is returned.
+     *
+     * @param n the name
+     * @return the priority or {@code null}
+     */
+    @Nullable
+    public static DistributionRequestPriority fromName(@Nullable String n) {
+        if (n == null) {
+            return null;
+        }
+        try {
+            return DistributionRequestPriority.valueOf(n.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -27,13 +27,21 @@ import org.osgi.annotation.versioning.ProviderType;
  * {@link org.apache.sling.distribution.DistributionRequest} are:
  * {@code #DISTRIBUTED} to ø,
  * {@code #DROPPED} to ø,
+ * {@code #THROTTLED} to ø,
+ * {@code #CANCELLED} to ø,
+ * {@code #EXPIRED} to ø,
+ * {@code #SUPERSEDED} to ø,
  * {@code #ACCEPTED} to {@code #DROPPED},
- * {@code #ACCEPTED} to {@code #DISTRIBUTED}.
+ * {@code #ACCEPTED} to {@code #DISTRIBUTED},
+ * {@code #ACCEPTED} to {@code #CANCELLED},
+ * {@code #ACCEPTED} to {@code #EXPIRED},
+ * {@code #ACCEPTED} to {@code #SUPERSEDED}.
  * </p>
  * <p>
  * {@link org.apache.sling.distribution.DistributionRequest}s executed synchronously
  * will only results in {@code #DISTRIBUTED} or {@code #DROPPED} {@link org.apache.sling.distribution.DistributionRequestState}s
  * while requests executed asynchronously can result in any of {@code #DISTRIBUTED}, {@code #DROPPED} or {@code #ACCEPTED} states.
+ * Either kind of request can result in {@code #THROTTLED} when the agent is saturated.
  * </p>
  */
 @ProviderType
@@ -61,6 +69,31 @@ public enum DistributionRequestState {
      * The request has been accepted, as a consequence the content to be distributed
      * has been created and queued (and it will be eventually processed asynchronously).
      */
-    ACCEPTED
+    ACCEPTED,
+
+    /**
+     * The request has been rejected because the agent is saturated, e.g. its queues are full, no content
+     * has been created. The request can be submitted again, preferably not before the delay hinted by
+     * {@link DistributionResponse#getRetryAfter(java.util.concurrent.TimeUnit)}.
+     */
+    THROTTLED,
+
+    /**
+     * The request has been cancelled through its {@link DistributionRequestHandle} before its content was
+     * transported, and has been removed from the distribution queues.
+     */
+    CANCELLED,
+
+    /**
+     * The {@link DistributionRequest#getDeadline() deadline} of the request passed before its content was
+     * transported, and the request has been removed from the distribution queues.
+     */
+    EXPIRED,
+
+    /**
+     * The request has been removed from the distribution queues before its content was transported because
+     * a newer request covering all of its content was queued, see {@link DistributionRequestCoverage}.
+     */
+    SUPERSEDED
 
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.sling.distribution;
 
+import java.util.concurrent.TimeUnit;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -65,4 +66,36 @@ public interface DistributionResponse {
      */
     @NotNull
     DistributionResponseInfo getDistributionInfo();
+
+    /**
+     * returns the delay after which a {@link DistributionRequestState#THROTTLED throttled} request should
+     * be submitted again
+     *
+     * @param unit the unit of the returned delay
+     * @return the delay in the given unit, or {@code -1} if the agent does not provide a hint
+     */
+    default long getRetryAfter(@NotNull TimeUnit unit) {
+        return -1;
+    }
+
+    /**
+     * returns the number of items in the queues of the agent when the request was handled, allowing
+     * producers to adapt their rate before the agent throttles the requests
+     *
+     * @return the queue depth, or {@code -1} if the agent does not provide it
+     */
+    default long getQueueDepth() {
+        return -1;
+    }
+
+    /**
+     * returns the handle allowing to cancel the associated {@link DistributionRequest} while it is
+     * {@link DistributionRequestState#ACCEPTED accepted}
+     *
+     * @return the handle, {@link DistributionRequestHandle#NONE} if the request cannot be cancelled
+     */
+    @NotNull
+    default DistributionRequestHandle getRequestHandle() {
+        return DistributionRequestHandle.NONE;
+    }
 }
@@ -19,6 +19,7 @@
 package org.apache.sling.distribution;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.osgi.annotation.versioning.ProviderType;
 
 /**
@@ -39,4 +40,35 @@ public interface DistributionResponseInfo {
      */
     @NotNull
     String getId();
+
+    /**
+     * returns the measurements taken while handling the associated {@link DistributionRequest}
+     *
+     * @return the metrics, {@link DistributionResponseMetrics#NONE} if the agent does not provide any
+     */
+    @NotNull
+    default DistributionResponseMetrics getMetrics() {
+        return DistributionResponseMetrics.NONE;
+    }
+
+    /**
+     * returns the priority the associated {@link DistributionRequest} has been scheduled with
+     *
+     * @return the priority, {@link DistributionRequestPriority#NORMAL} if the agent does not support priorities
+     */
+    @NotNull
+    default DistributionRequestPriority getPriority() {
+        return DistributionRequestPriority.NORMAL;
+    }
+
+    /**
+     * returns the fingerprint of the package created for the associated {@link DistributionRequest}, a hash of
+     * the serialised package allowing to detect identical packages
+     *
+     * @return the fingerprint, or {@code null} if the agent does not provide it
+     */
+    @Nullable
+    default String getFingerprint() {
+        return null;
+    }
 }
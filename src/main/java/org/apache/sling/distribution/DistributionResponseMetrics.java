@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * A {@link DistributionResponseMetrics} holds the measurements taken while handling a {@link DistributionRequest},
+ * as far as they are known by the agent at the time the {@link DistributionResponse} is returned.
+ * Values which were not measured are reported as {@code -1}.
+ */
+@ProviderType
+public interface DistributionResponseMetrics {
+    DistributionResponseMetrics NONE = new DistributionResponseMetrics() {
+        @Override public long getDuration(@NotNull DistributionPhase phase, @NotNull TimeUnit unit) {
+            return -1;
+        }
+
+        @Override public long getPackageSize() {
+            return -1;
+        }
+
+        @Override public long getNodeCount() {
+            return -1;
+        }
+    };
+
+    /**
+     * returns the time spent in a phase of the distribution
+     *
+     * @param phase the phase
+     * @param unit the unit of the returned duration
+     * @return the duration of the phase, or {@code -1} if it was not measured
+     */
+    long getDuration(@NotNull DistributionPhase phase, @NotNull TimeUnit unit);
+
+    /**
+     * returns the size of the distributed package
+     *
+     * @return the size in bytes, or {@code -1} if not known
+     */
+    long getPackageSize();
+
+    /**
+     * returns the number of nodes held by the distributed package
+     *
+     * @return the number of nodes, or {@code -1} if not known
+     */
+    long getNodeCount();
+}
@@ -19,6 +19,14 @@
 
 package org.apache.sling.distribution;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.apache.sling.api.resource.ResourceResolver;
 import org.jetbrains.annotations.NotNull;
 import org.osgi.annotation.versioning.ProviderType;
@@ -53,5 +61,58 @@ public interface Distributor {
     DistributionResponse distribute(String agentName, ResourceResolver resourceResolver,
                                     DistributionRequest distributionRequest);
 
+    /**
+     * Perform a batch of {@link org.apache.sling.distribution.DistributionRequest}s.
+     * Compatible requests are merged by a {@link DistributionRequestCoalescer} so that they are distributed
+     * together, the response of a merged request is returned for each of the requests it covers.
+     * Once a request is {@link DistributionRequestState#THROTTLED throttled}, the remaining requests are not
+     * submitted and get the throttled response.
+     *
+     * @param agentName the name of the agent used to distribute the requests
+     * @param resourceResolver the resource resolver used for authorizing the requests
+     * @param distributionRequests the distribution requests
+     * @return a list holding the {@link org.apache.sling.distribution.DistributionResponse} of each request,
+     * in the iteration order of the given requests
+     */
+    @NotNull
+    default List<DistributionResponse> distributeBatch(String agentName, ResourceResolver resourceResolver,
+                                                       Collection<? extends DistributionRequest> distributionRequests) {
+        List<DistributionRequest> requests = new ArrayList<>(distributionRequests);
+        DistributionResponse[] responses = new DistributionResponse[requests.size()];
+        DistributionResponse throttled = null;
+        for (DistributionRequestCoalescer.Group group : new DistributionRequestCoalescer().coalesce(requests)) {
+            DistributionResponse response = throttled != null ? throttled
+                    : distribute(agentName, resourceResolver, group.getRequest());
+            if (response.getState() == DistributionRequestState.THROTTLED) {
+                throttled = response;
+            }
+            for (int index : group.getIndexes()) {
+                responses[index] = response;
+            }
+        }
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Perform a {@link org.apache.sling.distribution.DistributionRequest} with several distribution agents, e.g. to
+     * publish the same content to publish and preview instances.
+     * Implementations are encouraged to create the package only once and to share it across the agents, the default
+     * implementation distributes the request with each agent in turn.
+     *
+     * @param agentNames the names of the agents used to distribute the request
+     * @param resourceResolver the resource resolver used for authorizing the request
+     * @param distributionRequest the distribution request
+     * @return the {@link org.apache.sling.distribution.DistributionResponse} of each agent, keyed by agent name
+     * in the iteration order of the given names
+     */
+    @NotNull
+    default Map<String, DistributionResponse> distributeToAgents(Set<String> agentNames, ResourceResolver resourceResolver,
+                                                                 DistributionRequest distributionRequest) {
+        Map<String, DistributionResponse> responses = new LinkedHashMap<>();
+        for (String agentName : agentNames) {
+            responses.put(agentName, distribute(agentName, resourceResolver, distributionRequest));
+        }
+        return responses;
+    }
 
 }
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Exception thrown by an {@link ImportPreProcessor} to indicate that the package to be imported has the
+ * fingerprint of a package already imported. Importers must skip the import and consider it successful rather than
+ * retrying it, {@link ImportProcessorPipeline#preProcess(java.util.Map)} does so by returning <code>false</code>.
+ */
+public class DuplicateImportException extends ImportPreProcessException {
+
+    private final String fingerprint;
+
+    /**
+     * Constructs a new DuplicateImportException for the given fingerprint.
+     *
+     * @param fingerprint the fingerprint of the package already imported
+     */
+    public DuplicateImportException(@NotNull String fingerprint) {
+        super("package with fingerprint " + fingerprint + " already imported");
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * get the fingerprint of the package already imported
+     *
+     * @return the fingerprint
+     */
+    @NotNull
+    public String getFingerprint() {
+        return fingerprint;
+    }
+}
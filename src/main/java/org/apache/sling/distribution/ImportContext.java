@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.Map;
+
+import org.apache.sling.distribution.event.DistributionEventProperties;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * <p>
+ * An {@link ImportContext} describes the content being imported to the {@link ImportPreProcessor}s,
+ * {@link ImportPostProcessor}s and {@link InvalidationProcessor}s.
+ * </p>
+ * <p>
+ * Contexts are provided by the importer and are meant to be backed by the metadata of the imported package, see
+ * {@link AbstractImportContext}. Contexts created with {@link #fromMap(Map)} are backed by the given map instead.
+ * The {@link #asMap() map view} exposes the same information with the keys of {@link DistributionEventProperties},
+ * as expected by processors working on property maps.
+ * </p>
+ */
+@ProviderType
+public interface ImportContext {
+
+    /**
+     * get the id of the imported package
+     *
+     * @return the package id, empty if not known
+     */
+    @NotNull
+    String getPackageId();
+
+    /**
+     * get the type of the request the package was created for
+     *
+     * @return the request type, or {@code null} if not known
+     */
+    @Nullable
+    DistributionRequestType getRequestType();
+
+    /**
+     * get the paths of the imported package
+     *
+     * @return an array of paths
+     */
+    @NotNull
+    String[] getPaths();
+
+    /**
+     * get the paths of the imported package which cover their entire subtree
+     *
+     * @return an array of deep paths
+     */
+    @NotNull
+    String[] getDeepPaths();
+
+    /**
+     * get the size of the imported package
+     *
+     * @return the size in bytes, or {@code -1} if not known
+     */
+    long getPackageSize();
+
+    /**
+     * get the fingerprint of the imported package, a hash of its serialised content
+     *
+     * @return the fingerprint, or {@code null} if not known
+     */
+    @Nullable
+    default String getFingerprint() {
+        Object fingerprint = asMap().get(DistributionEventProperties.DISTRIBUTION_PACKAGE_FINGERPRINT);
+        return fingerprint != null ? fingerprint.toString() : null;
+    }
+
+    /**
+     * get a view of this context as a property map, read only for contexts backed by the package metadata and the
+     * backing map itself for contexts created with {@link #fromMap(Map)}
+     *
+     * @return the property map
+     */
+    @NotNull
+    Map<String, Object> asMap();
+
+    /**
+     * Creates a context reading its values from a property map, as passed to the property map based processors.
+     * The map is neither copied nor wrapped, changes to it are visible through the context.
+     *
+     * @param props the properties defining the imported content
+     * @return the context
+     */
+    @NotNull
+    static ImportContext fromMap(@NotNull Map<String, Object> props) {
+        return new MapImportContext(props);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ * A bounded cache of the fingerprints of the imported packages, used to skip the import of packages which have
+ * already been imported, e.g. during retries or repeated publications of unchanged content.
+ * </p>
+ * <p>
+ * The {@link #getPreProcessor() pre-processor} throws a {@link DuplicateImportException} for a package whose
+ * fingerprint is in the cache, the {@link #getPostProcessor() post-processor} adds the fingerprint of each imported
+ * package to the cache along with its paths. Packages without a fingerprint are always imported. Once the cache is
+ * full, the least recently seen fingerprint is evicted.
+ * </p>
+ * <p>
+ * A fingerprint only stands for the content of its paths until another package changes them: each import, with or
+ * without a fingerprint, drops the fingerprints recorded for the same paths, their ancestors or their descendants.
+ * Importing a package again after a later package changed its paths therefore imports it rather than skipping it.
+ * </p>
+ * <p>
+ * Instances are thread safe.
+ * </p>
+ */
+public final class ImportFingerprintCache {
+
+    /**
+     * The name of the {@link #getPreProcessor() pre-processor} in an {@link ImportProcessorPipeline}
+     */
+    public static final String PRE_PROCESSOR_NAME = "fingerprint-check";
+
+    /**
+     * The name of the {@link #getPostProcessor() post-processor} in an {@link ImportProcessorPipeline}
+     */
+    public static final String POST_PROCESSOR_NAME = "fingerprint-record";
+
+    private final Map<String, String[]> fingerprints;
+
+    /**
+     * The fingerprints recorded for each path, in hierarchical order so that descendants follow their ancestor
+     */
+    private final NavigableMap<String, Set<String>> pathIndex = new TreeMap<>(DistributionPaths.HIERARCHICAL_ORDER);
+
+    private final ImportPreProcessor preProcessor = new PreProcessor();
+
+    private final ImportPostProcessor postProcessor = new PostProcessor();
+
+    /**
+     * Creates a cache.
+     * @param maxSize the maximum number of fingerprints held
+     */
+    public ImportFingerprintCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive, was " + maxSize);
+        }
+        this.fingerprints = new LinkedHashMap<String, String[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+                if (size() > maxSize) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Checks whether a package with the given fingerprint has been imported.
+     * @param fingerprint the fingerprint
+     * @return <code>true</code> if the fingerprint is in the cache
+     */
+    public synchronized boolean contains(@NotNull String fingerprint) {
+        return fingerprints.get(fingerprint) != null;
+    }
+
+    /**
+     * Records the fingerprint of an imported package, dropping the fingerprints recorded for overlapping paths.
+     * @param fingerprint the fingerprint
+     * @param paths the paths of the imported package
+     */
+    public synchronized void record(@NotNull String fingerprint, @NotNull String[] paths) {
+        invalidate(paths);
+        String[] copy = paths.clone();
+        fingerprints.put(fingerprint, copy);
+        for (String path : copy) {
+            Set<String> recorded = pathIndex.get(path);
+            if (recorded == null) {
+                recorded = new HashSet<>();
+                pathIndex.put(path, recorded);
+            }
+            recorded.add(fingerprint);
+        }
+    }
+
+    /**
+     * Drops the fingerprints recorded for the given paths, their ancestors or their descendants, as their content
+     * has been changed by another import.
+     * @param paths the paths of the imported package
+     */
+    public synchronized void invalidate(@NotNull String[] paths) {
+        List<String> stale = new ArrayList<>();
+        for (String path : paths) {
+            for (Map.Entry<String, Set<String>> entry : pathIndex.tailMap(path, true).entrySet()) {
+                if (!entry.getKey().equals(path) && !DistributionPaths.isAncestor(path, entry.getKey())) {
+                    break;
+                }
+                stale.addAll(entry.getValue());
+            }
+            for (int i = path.lastIndexOf('/'); i >= 0; i = path.lastIndexOf('/', i - 1)) {
+                Set<String> recorded = pathIndex.get(i == 0 ? "/" : path.substring(0, i));
+                if (recorded != null) {
+                    stale.addAll(recorded);
+                }
+                if (i == 0) {
+                    break;
+                }
+            }
+        }
+        for (String fingerprint : stale) {
+            String[] recordedPaths = fingerprints.remove(fingerprint);
+            if (recordedPaths != null) {
+                unindex(fingerprint, recordedPaths);
+            }
+        }
+    }
+
+    /**
+     * get the number of fingerprints in the cache
+     *
+     * @return the number of fingerprints
+     */
+    public synchronized int size() {
+        return fingerprints.size();
+    }
+
+    /**
+     * Removes all the fingerprints from the cache.
+     */
+    public synchronized void clear() {
+        fingerprints.clear();
+        pathIndex.clear();
+    }
+
+    /**
+     * get the pre-processor rejecting the packages already imported, it has the highest ranking so that it runs
+     * before the other pre-processors
+     *
+     * @return the pre-processor
+     */
+    @NotNull
+    public ImportPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    /**
+     * get the post-processor recording the fingerprints of the imported packages
+     *
+     * @return the post-processor
+     */
+    @NotNull
+    public ImportPostProcessor getPostProcessor() {
+        return postProcessor;
+    }
+
+    private void unindex(String fingerprint, String[] paths) {
+        for (String path : paths) {
+            Set<String> recorded = pathIndex.get(path);
+            if (recorded != null && recorded.remove(fingerprint) && recorded.isEmpty()) {
+                pathIndex.remove(path);
+            }
+        }
+    }
+
+    private final class PreProcessor implements ImportPreProcessor, ImportProcessorInfo {
+
+        @Override
+        public void process(Map<String, Object> props) throws ImportPreProcessException {
+            processContext(ImportContext.fromMap(props));
+        }
+
+        @Override
+        public void processContext(ImportContext context) throws ImportPreProcessException {
+            String fingerprint = context.getFingerprint();
+            if (fingerprint != null && contains(fingerprint)) {
+                throw new DuplicateImportException(fingerprint);
+            }
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return PRE_PROCESSOR_NAME;
+        }
+
+        @Override
+        public int getRanking() {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private final class PostProcessor implements ImportPostProcessor, ImportProcessorInfo {
+
+        @Override
+        public void process(Map<String, Object> props) {
+            processContext(ImportContext.fromMap(props));
+        }
+
+        @Override
+        public void processContext(ImportContext context) {
+            String fingerprint = context.getFingerprint();
+            if (fingerprint != null) {
+                record(fingerprint, context.getPaths());
+            } else {
+                invalidate(context.getPaths());
+            }
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return POST_PROCESSOR_NAME;
+        }
+
+        @Override
+        public boolean isIndependent() {
+            return true;
+        }
+    }
+}
@@ -30,4 +30,15 @@ public interface ImportPostProcessor {
      * @param props properties defining the content imported
      */
     void process(Map<String, Object> props) throws ImportPostProcessException;
+
+    /**
+     * Process the typed {@link ImportContext} describing the content imported. By default this method delegates to
+     * {@link #process(Map)} with the {@link ImportContext#asMap() map view} of the context, processors which
+     * only need a few values can override it to avoid the string keyed lookups.
+     *
+     * @param context the context describing the content imported
+     */
+    default void processContext(ImportContext context) throws ImportPostProcessException {
+        process(context.asMap());
+    }
 }
@@ -26,6 +26,11 @@ import java.util.Map;
  * validation or initial setup, without modifying the properties of the content directly.
  * Implementations of this interface can carry out checks or other preparatory tasks
  * required before the content import process begins.
+ * <p>
+ * A {@link DuplicateImportException} is not a failure: importers which call the pre-processors directly rather than
+ * through an {@link ImportProcessorPipeline} must catch it before {@link ImportPreProcessException}, skip the import
+ * and report it as successful, without retrying it.
+ * </p>
  */
 public interface ImportPreProcessor {
     /**
@@ -40,4 +45,17 @@ public interface ImportPreProcessor {
      *         the content from being imported successfully
      */
     void process(Map<String, Object> props) throws ImportPreProcessException;
+
+    /**
+     * Process the typed {@link ImportContext} describing the content to be imported. By default this method delegates to
+     * {@link #process(Map)} with the {@link ImportContext#asMap() map view} of the context, processors which
+     * only need a few values can override it to avoid the string keyed lookups.
+     *
+     * @param context the context describing the content to be imported
+     * @throws ImportPreProcessException if there is an issue that prevents
+     *         the content from being imported successfully
+     */
+    default void processContext(ImportContext context) throws ImportPreProcessException {
+        process(context.asMap());
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ConsumerType;
+
+/**
+ * <p>
+ * Describes how an {@link ImportPreProcessor} or {@link ImportPostProcessor} is to be scheduled by an
+ * {@link ImportProcessorPipeline}.
+ * </p>
+ * <p>
+ * Processors may implement this interface next to the processor interface. Processors which do not implement
+ * it are identified by their class name, have a ranking of {@code 0}, no dependencies and are not independent.
+ * </p>
+ */
+@ConsumerType
+public interface ImportProcessorInfo {
+
+    /**
+     * get the name of the processor, referenced by the dependencies of other processors
+     *
+     * @return the name of the processor
+     */
+    @NotNull
+    default String getName() {
+        return getClass().getName();
+    }
+
+    /**
+     * get the ranking of the processor, processors with a higher ranking run first unless dependencies require
+     * otherwise
+     *
+     * @return the ranking
+     */
+    default int getRanking() {
+        return 0;
+    }
+
+    /**
+     * get the names of the processors which must have completed before this processor runs, names of processors
+     * which are not part of the pipeline are ignored
+     *
+     * @return the names of the processors this processor depends on
+     */
+    @NotNull
+    default Set<String> getDependencies() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns whether the processor is thread safe and has no side effect on other processors, so that it can run
+     * concurrently with other independent processors.
+     *
+     * @return <code>true</code> if the processor is independent
+     */
+    default boolean isIndependent() {
+        return false;
+    }
+}
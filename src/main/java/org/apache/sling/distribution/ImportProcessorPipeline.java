@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ * Runs the {@link ImportPreProcessor}s and {@link ImportPostProcessor}s of an import in a defined order.
+ * </p>
+ * <p>
+ * Processors are ordered according to their {@link ImportProcessorInfo}: a processor runs after the processors it
+ * depends on and, among the processors ready to run, the ones with the highest ranking run first, ties being broken
+ * by registration order. The order is computed once, when the pipeline is created.
+ * </p>
+ * <p>
+ * Pre-processors run one after another on the calling thread and the first failure stops the pipeline, so that a
+ * rejected import costs no more than the checks run so far. A {@link DuplicateImportException} is not a failure:
+ * it stops the pre-processors and is reported as a skipped import. Consecutive independent post-processors run
+ * concurrently on the given executor, which should be bounded, and the pipeline waits for all of them before running
+ * the next post-processors. A failing post-processor does not interrupt the ones running concurrently, but the following
+ * ones are not run.
+ * </p>
+ */
+public final class ImportProcessorPipeline {
+
+    private final List<ImportPreProcessor> preProcessors;
+
+    private final List<List<ImportPostProcessor>> postStages;
+
+    private final Executor executor;
+
+    /**
+     * Creates a pipeline.
+     * @param preProcessors the pre-processors, in registration order
+     * @param postProcessors the post-processors, in registration order
+     * @param executor the executor running independent post-processors concurrently
+     * @throws IllegalArgumentException if the dependencies between processors are cyclic
+     */
+    public ImportProcessorPipeline(@NotNull List<? extends ImportPreProcessor> preProcessors,
+                                   @NotNull List<? extends ImportPostProcessor> postProcessors,
+                                   @NotNull Executor executor) {
+        this.executor = Objects.requireNonNull(executor);
+        List<ImportPreProcessor> pre = new ArrayList<>();
+        for (Node<ImportPreProcessor> node : ImportProcessorPipeline.<ImportPreProcessor>sort(preProcessors)) {
+            pre.add(node.processor);
+        }
+        this.preProcessors = Collections.unmodifiableList(pre);
+        this.postStages = stages(ImportProcessorPipeline.<ImportPostProcessor>sort(postProcessors));
+    }
+
+    /**
+     * Runs the pre-processors.
+     * @param props properties defining the content to be imported
+     * @return <code>true</code> if the content is to be imported, <code>false</code> if a pre-processor reported it
+     * as already imported, in which case the import is to be skipped and reported as successful without being retried
+     * @throws ImportPreProcessException thrown by the first failing pre-processor
+     */
+    public boolean preProcess(@NotNull Map<String, Object> props) throws ImportPreProcessException {
+        try {
+            for (ImportPreProcessor processor : preProcessors) {
+                processor.process(props);
+            }
+            return true;
+        } catch (DuplicateImportException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the pre-processors with a typed context.
+     * @param context the context describing the content to be imported
+     * @return <code>true</code> if the content is to be imported, <code>false</code> if a pre-processor reported it
+     * as already imported, in which case the import is to be skipped and reported as successful without being retried
+     * @throws ImportPreProcessException thrown by the first failing pre-processor
+     */
+    public boolean preProcessContext(@NotNull ImportContext context) throws ImportPreProcessException {
+        try {
+            for (ImportPreProcessor processor : preProcessors) {
+                processor.processContext(context);
+            }
+            return true;
+        } catch (DuplicateImportException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the post-processors.
+     * @param props properties defining the content imported
+     * @throws ImportPostProcessException thrown by a failing post-processor, the failures of post-processors
+     * which ran concurrently are added as suppressed exceptions
+     */
+    public void postProcess(@NotNull Map<String, Object> props) throws ImportPostProcessException {
+        runStages(processor -> processor.process(props));
+    }
+
+    /**
+     * Runs the post-processors with a typed context.
+     * @param context the context describing the content imported
+     * @throws ImportPostProcessException thrown by a failing post-processor, the failures of post-processors
+     * which ran concurrently are added as suppressed exceptions
+     */
+    public void postProcessContext(@NotNull ImportContext context) throws ImportPostProcessException {
+        runStages(processor -> processor.processContext(context));
+    }
+
+    private void runStages(Invocation invocation) throws ImportPostProcessException {
+        for (List<ImportPostProcessor> stage : postStages) {
+            if (stage.size() == 1) {
+                invocation.invoke(stage.get(0));
+            } else {
+                runConcurrently(stage, invocation);
+            }
+        }
+    }
+
+    private void runConcurrently(List<ImportPostProcessor> stage, Invocation invocation)
+            throws ImportPostProcessException {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(stage.size() - 1);
+        for (int i = 1; i < stage.size(); i++) {
+            ImportPostProcessor processor = stage.get(i);
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    invocation.invoke(processor);
+                } catch (ImportPostProcessException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        Throwable failure = null;
+        try {
+            invocation.invoke(stage.get(0));
+        } catch (ImportPostProcessException | RuntimeException e) {
+            failure = e;
+        }
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure instanceof ImportPostProcessException) {
+            throw (ImportPostProcessException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure != null) {
+            throw new ImportPostProcessException(failure);
+        }
+    }
+
+    private static List<List<ImportPostProcessor>> stages(List<Node<ImportPostProcessor>> sorted) {
+        List<List<ImportPostProcessor>> stages = new ArrayList<>();
+        List<ImportPostProcessor> batch = new ArrayList<>();
+        Set<String> batchNames = new HashSet<>();
+        for (Node<ImportPostProcessor> node : sorted) {
+            boolean joinsBatch = node.info.isIndependent()
+                    && Collections.disjoint(node.info.getDependencies(), batchNames);
+            if (!joinsBatch && !batch.isEmpty()) {
+                stages.add(batch);
+                batch = new ArrayList<>();
+                batchNames.clear();
+            }
+            if (node.info.isIndependent()) {
+                batch.add(node.processor);
+                batchNames.add(node.info.getName());
+            } else {
+                stages.add(Collections.singletonList(node.processor));
+            }
+        }
+        if (!batch.isEmpty()) {
+            stages.add(batch);
+        }
+        return stages;
+    }
+
+    private static <P> List<Node<P>> sort(List<? extends P> processors) {
+        List<Node<P>> nodes = new ArrayList<>(processors.size());
+        Map<String, List<Node<P>>> byName = new HashMap<>();
+        for (P processor : processors) {
+            Node<P> node = new Node<>(nodes.size(), processor);
+            nodes.add(node);
+            byName.computeIfAbsent(node.info.getName(), name -> new ArrayList<>()).add(node);
+        }
+        for (Node<P> node : nodes) {
+            for (String dependency : node.info.getDependencies()) {
+                for (Node<P> required : byName.getOrDefault(dependency, Collections.<Node<P>>emptyList())) {
+                    if (required != node) {
+                        required.dependents.add(node);
+                        node.pending++;
+                    }
+                }
+            }
+        }
+        PriorityQueue<Node<P>> ready = new PriorityQueue<>((a, b) -> a.ranking != b.ranking
+                ? Integer.compare(b.ranking, a.ranking) : Integer.compare(a.position, b.position));
+        for (Node<P> node : nodes) {
+            if (node.pending == 0) {
+                ready.add(node);
+            }
+        }
+        List<Node<P>> sorted = new ArrayList<>(nodes.size());
+        while (!ready.isEmpty()) {
+            Node<P> node = ready.poll();
+            sorted.add(node);
+            for (Node<P> dependent : node.dependents) {
+                if (--dependent.pending == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (sorted.size() < nodes.size()) {
+            throw new IllegalArgumentException("cyclic dependencies between import processors");
+        }
+        return sorted;
+    }
+
+    private interface Invocation {
+        void invoke(ImportPostProcessor processor) throws ImportPostProcessException;
+    }
+
+    private static final class Node<P> {
+
+        private final int position;
+
+        private final P processor;
+
+        private final ImportProcessorInfo info;
+
+        private final int ranking;
+
+        private final List<Node<P>> dependents = new ArrayList<>();
+
+        private int pending;
+
+        Node(int position, P processor) {
+            this.position = position;
+            this.processor = processor;
+            this.info = processor instanceof ImportProcessorInfo ? (ImportProcessorInfo) processor : new ClassNameInfo(processor);
+            this.ranking = info.getRanking();
+        }
+    }
+
+    private static final class ClassNameInfo implements ImportProcessorInfo {
+
+        private final String name;
+
+        ClassNameInfo(Object processor) {
+            this.name = processor.getClass().getName();
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_PACKAGE_IDS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_DEEP_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_ENQUEUE_TIMESTAMP;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_ID;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_TYPE;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ * Buffers invalidation requests and hands them to an {@link InvalidationProcessor} as one consolidated batch.
+ * </p>
+ * <p>
+ * The paths of the buffered requests, read from the {@code distribution.paths} and {@code distribution.deep.paths}
+ * properties, are merged: duplicates are removed, as well as the paths below a deep path of the batch. The batch is
+ * handed over as a single item holding the merged paths, through {@link InvalidationProcessor#processBatch(List)},
+ * once the time window opened by the first buffered request has elapsed or the number of buffered paths reaches
+ * the limit. Since no thread is started, callers are expected to invoke {@link #flushIfDue()} periodically, and
+ * {@link #flush()} on shutdown.
+ * </p>
+ * <p>
+ * Only requests of the same type are merged, a request of another type flushes the open batch first. The package
+ * ids of the merged requests are collected in the {@code distribution.batch.package.ids} property of the batch and
+ * the earliest {@code distribution.enqueue.timestamp} is kept. The properties given as ignorable when creating the
+ * coalescer are dropped. Requests carrying any other property cannot be merged without losing it: they flush the
+ * open batch and are handed over on their own, with all their properties.
+ * </p>
+ * <p>
+ * Instances are thread safe. The processor is invoked outside of the coalescer lock, but one batch at a time and in
+ * the order the batches were closed, whichever thread closed them. A batch failing to be processed is not retried.
+ * </p>
+ */
+public final class InvalidationCoalescer {
+
+    private final InvalidationProcessor processor;
+
+    private final long windowMillis;
+
+    private final int maxPaths;
+
+    private final Set<String> ignorableKeys;
+
+    private final LongSupplier clock;
+
+    private final Set<String> paths = new LinkedHashSet<>();
+
+    private final Set<String> deepPaths = new HashSet<>();
+
+    private final Set<String> packageIds = new LinkedHashSet<>();
+
+    private Object requestType;
+
+    private long windowStart = -1;
+
+    private long enqueueTimestamp = -1;
+
+    /**
+     * the batches closed and not yet handed to the processor, guarded by the coalescer lock
+     */
+    private final Deque<Map<String, Object>> closed = new ArrayDeque<>();
+
+    /**
+     * held while handing batches to the processor, so that they are processed one at a time and in order
+     */
+    private final Object deliveryLock = new Object();
+
+    /**
+     * Creates a coalescer.
+     * @param processor the processor the consolidated batches are handed to
+     * @param windowMillis the time during which requests are buffered, in milliseconds
+     * @param maxPaths the number of buffered paths causing an immediate flush
+     */
+    public InvalidationCoalescer(@NotNull InvalidationProcessor processor, long windowMillis, int maxPaths) {
+        this(processor, windowMillis, maxPaths, Collections.<String>emptySet());
+    }
+
+    /**
+     * Creates a coalescer dropping some properties of the merged requests.
+     * @param processor the processor the consolidated batches are handed to
+     * @param windowMillis the time during which requests are buffered, in milliseconds
+     * @param maxPaths the number of buffered paths causing an immediate flush
+     * @param ignorableKeys the properties which are dropped rather than preventing requests to be merged
+     */
+    public InvalidationCoalescer(@NotNull InvalidationProcessor processor, long windowMillis, int maxPaths,
+                                 @NotNull Set<String> ignorableKeys) {
+        this(processor, windowMillis, maxPaths, ignorableKeys, System::currentTimeMillis);
+    }
+
+    InvalidationCoalescer(InvalidationProcessor processor, long windowMillis, int maxPaths, Set<String> ignorableKeys,
+                          LongSupplier clock) {
+        if (windowMillis < 0 || maxPaths < 1) {
+            throw new IllegalArgumentException("invalid window " + windowMillis + " or path limit " + maxPaths);
+        }
+        this.processor = Objects.requireNonNull(processor);
+        this.windowMillis = windowMillis;
+        this.maxPaths = maxPaths;
+        this.ignorableKeys = new HashSet<>(ignorableKeys);
+        this.clock = clock;
+    }
+
+    /**
+     * Buffers an invalidation request, flushing the batch if it is due.
+     * @param props the properties defining the invalidated content
+     * @throws InvalidationProcessException if flushing the batch failed
+     */
+    public void add(@NotNull Map<String, Object> props) throws InvalidationProcessException {
+        synchronized (this) {
+            boolean mergeable = isMergeable(props);
+            Object type = props.get(DISTRIBUTION_TYPE);
+            if (windowStart >= 0 && (!mergeable || !Objects.equals(type, requestType))) {
+                close();
+            }
+            if (mergeable) {
+                if (windowStart < 0) {
+                    windowStart = clock.getAsLong();
+                    requestType = type;
+                }
+                String[] deep = asArray(props.get(DISTRIBUTION_DEEP_PATHS));
+                Collections.addAll(deepPaths, deep);
+                Collections.addAll(paths, asArray(props.get(DISTRIBUTION_PATHS)));
+                Collections.addAll(paths, deep);
+                Object packageId = props.get(DISTRIBUTION_PACKAGE_ID);
+                if (packageId != null) {
+                    packageIds.add(packageId.toString());
+                }
+                Object timestamp = props.get(DISTRIBUTION_ENQUEUE_TIMESTAMP);
+                if (timestamp instanceof Number) {
+                    long value = ((Number) timestamp).longValue();
+                    enqueueTimestamp = enqueueTimestamp < 0 ? value : Math.min(enqueueTimestamp, value);
+                }
+                if (isDue()) {
+                    close();
+                }
+            } else {
+                closed.add(props);
+            }
+        }
+        deliver();
+    }
+
+    /**
+     * Flushes the batch if the time window has elapsed.
+     * @throws InvalidationProcessException if processing the batch failed
+     */
+    public void flushIfDue() throws InvalidationProcessException {
+        synchronized (this) {
+            if (isDue()) {
+                close();
+            }
+        }
+        deliver();
+    }
+
+    /**
+     * Flushes the batch regardless of the time window.
+     * @throws InvalidationProcessException if processing the batch failed
+     */
+    public void flush() throws InvalidationProcessException {
+        synchronized (this) {
+            close();
+        }
+        deliver();
+    }
+
+    private boolean isDue() {
+        return windowStart >= 0 && (paths.size() >= maxPaths || clock.getAsLong() - windowStart >= windowMillis);
+    }
+
+    private void close() {
+        if (windowStart < 0) {
+            return;
+        }
+        SimpleDistributionRequest merged = SimpleDistributionRequest.normalise(new SimpleDistributionRequest(
+                DistributionRequestType.INVALIDATE, paths.toArray(new String[0]), deepPaths));
+        List<String> mergedDeepPaths = new ArrayList<>();
+        for (String path : merged.getPaths()) {
+            if (merged.isDeep(path)) {
+                mergedDeepPaths.add(path);
+            }
+        }
+        Map<String, Object> batch = new HashMap<>();
+        if (requestType != null) {
+            batch.put(DISTRIBUTION_TYPE, requestType);
+        }
+        batch.put(DISTRIBUTION_PATHS, merged.getPaths());
+        batch.put(DISTRIBUTION_DEEP_PATHS, mergedDeepPaths.toArray(new String[0]));
+        if (!packageIds.isEmpty()) {
+            batch.put(DISTRIBUTION_BATCH_PACKAGE_IDS, packageIds.toArray(new String[0]));
+        }
+        if (enqueueTimestamp >= 0) {
+            batch.put(DISTRIBUTION_ENQUEUE_TIMESTAMP, enqueueTimestamp);
+        }
+        closed.add(batch);
+        paths.clear();
+        deepPaths.clear();
+        packageIds.clear();
+        requestType = null;
+        windowStart = -1;
+        enqueueTimestamp = -1;
+    }
+
+    private void deliver() throws InvalidationProcessException {
+        synchronized (deliveryLock) {
+            while (true) {
+                Map<String, Object> batch;
+                synchronized (this) {
+                    batch = closed.poll();
+                }
+                if (batch == null) {
+                    return;
+                }
+                processor.processBatch(Collections.singletonList(batch));
+            }
+        }
+    }
+
+    private boolean isMergeable(Map<String, Object> props) {
+        for (String key : props.keySet()) {
+            if (!DISTRIBUTION_TYPE.equals(key) && !DISTRIBUTION_PATHS.equals(key)
+                    && !DISTRIBUTION_DEEP_PATHS.equals(key) && !DISTRIBUTION_PACKAGE_ID.equals(key)
+                    && !DISTRIBUTION_ENQUEUE_TIMESTAMP.equals(key) && !ignorableKeys.contains(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] asArray(Object value) {
+        if (value instanceof String[]) {
+            return (String[]) value;
+        }
+        if (value instanceof String) {
+            return new String[] {(String) value};
+        }
+        return new String[0];
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.sling.distribution;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,4 +31,28 @@ public interface InvalidationProcessor {
      * @param props properties defining the invalidated content
      */
     void process(Map<String, Object> props) throws InvalidationProcessException;
+
+    /**
+     * Process the typed {@link ImportContext} describing the invalidated content. By default this method delegates to
+     * {@link #process(Map)} with the {@link ImportContext#asMap() map view} of the context, processors which
+     * only need a few values can override it to avoid the string keyed lookups.
+     *
+     * @param context the context describing the invalidated content
+     */
+    default void processContext(ImportContext context) throws InvalidationProcessException {
+        process(context.asMap());
+    }
+
+    /**
+     * Process a batch of invalidation requests, e.g. as consolidated by an {@link InvalidationCoalescer}.
+     * Implementations able to invalidate several items at once, e.g. with a single cache flush, should
+     * override this method which processes the items one by one by default.
+     *
+     * @param batch the properties defining each invalidated item
+     */
+    default void processBatch(List<Map<String, Object>> batch) throws InvalidationProcessException {
+        for (Map<String, Object> props : batch) {
+            process(props);
+        }
+    }
 }
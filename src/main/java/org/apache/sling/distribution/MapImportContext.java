@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_DEEP_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_ID;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_SIZE;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_TYPE;
+
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An {@link ImportContext} reading its values from a property map, the map is neither copied nor wrapped so that
+ * processors keep seeing the changes made to it by the previous processors.
+ */
+final class MapImportContext implements ImportContext {
+
+    private static final String[] NO_PATHS = new String[0];
+
+    private final Map<String, Object> props;
+
+    MapImportContext(Map<String, Object> props) {
+        this.props = props;
+    }
+
+    @NotNull
+    @Override
+    public String getPackageId() {
+        Object packageId = props.get(DISTRIBUTION_PACKAGE_ID);
+        return packageId != null ? packageId.toString() : "";
+    }
+
+    @Nullable
+    @Override
+    public DistributionRequestType getRequestType() {
+        Object type = props.get(DISTRIBUTION_TYPE);
+        if (type instanceof DistributionRequestType) {
+            return (DistributionRequestType) type;
+        }
+        return type != null ? DistributionRequestType.fromName(type.toString()) : null;
+    }
+
+    @NotNull
+    @Override
+    public String[] getPaths() {
+        return paths(DISTRIBUTION_PATHS);
+    }
+
+    @NotNull
+    @Override
+    public String[] getDeepPaths() {
+        return paths(DISTRIBUTION_DEEP_PATHS);
+    }
+
+    @Override
+    public long getPackageSize() {
+        Object size = props.get(DISTRIBUTION_PACKAGE_SIZE);
+        return size instanceof Number ? ((Number) size).longValue() : -1;
+    }
+
+    @NotNull
+    @Override
+    public Map<String, Object> asMap() {
+        return props;
+    }
+
+    @Override
+    public String toString() {
+        return "MapImportContext" + props;
+    }
+
+    private String[] paths(String key) {
+        Object paths = props.get(key);
+        return paths instanceof String[] ? (String[]) paths : NO_PATHS;
+    }
+}
@@ -19,14 +19,18 @@
 package org.apache.sling.distribution;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.osgi.annotation.versioning.ProviderType;
 
 /**
@@ -35,11 +39,20 @@ import org.osgi.annotation.versioning.ProviderType;
 @ProviderType
 public final class SimpleDistributionRequest implements DistributionRequest {
 
+    private static final String[] NO_PATHS = new String[0];
+
+    private static final String[] NO_FILTERS = new String[0];
 
     private final DistributionRequestType requestType;
+    private final DistributionRequestPriority priority;
+    private final DistributionBaseline baseline;
+    private final long deadline;
     private final Set<String> deepPaths;
     private final Map<String, String[]> pathFilters;
     private final String[] paths;
+    private final CompactPathSet compactPaths;
+    private final Map<String, CompiledPathFilter> compiledFilters;
+    private volatile DistributionPathIndex pathIndex;
 
     /**
      * Creates distribution request with "deep" or "shallow" paths.
@@ -48,7 +61,15 @@ public final class SimpleDistributionRequest implements DistributionRequest {
      * @param paths the array of paths to be distributed
      */
     public SimpleDistributionRequest(DistributionRequestType requestType, boolean isDeep, String... paths) {
-        this(requestType, paths, isDeep? new HashSet<String>(Arrays.asList(paths)) : new HashSet<String>());
+        this.requestType = requestType;
+        this.priority = DistributionRequestPriority.NORMAL;
+        this.baseline = null;
+        this.deadline = -1;
+        this.paths = sanitise(paths);
+        this.compactPaths = null;
+        this.deepPaths = isDeep ? toSet(this.paths) : Collections.<String>emptySet();
+        this.pathFilters = Collections.emptyMap();
+        this.compiledFilters = null;
     }
 
     /**
@@ -68,7 +89,7 @@ public final class SimpleDistributionRequest implements DistributionRequest {
      * @param deepPaths the set of paths that are to be distributed in depth (with all their children)
      */
     public SimpleDistributionRequest(DistributionRequestType requestType, String[] paths, Set<String> deepPaths) {
-        this(requestType, paths, deepPaths, new HashMap<String, String[]>());
+        this(requestType, paths, deepPaths, Collections.<String, String[]>emptyMap());
     }
 
 
@@ -81,9 +102,84 @@ public final class SimpleDistributionRequest implements DistributionRequest {
      */
     public SimpleDistributionRequest(DistributionRequestType requestType, String[] paths, Set<String> deepPaths, Map<String, String[]> pathFilters) {
         this.requestType = requestType;
+        this.priority = DistributionRequestPriority.NORMAL;
+        this.baseline = null;
+        this.deadline = -1;
         this.paths = sanitise(paths);
+        this.compactPaths = null;
         this.deepPaths = sanitise(deepPaths);
-        this.pathFilters = pathFilters;
+        this.pathFilters = pathFilters != null ? pathFilters : Collections.<String, String[]>emptyMap();
+        this.compiledFilters = this.pathFilters.isEmpty() ? null : new ConcurrentHashMap<>();
+    }
+
+    private SimpleDistributionRequest(Builder builder) {
+        this.requestType = builder.requestType;
+        this.priority = builder.priority;
+        this.baseline = builder.baseline;
+        this.deadline = builder.deadline;
+        if (builder.compact) {
+            this.paths = null;
+            this.compactPaths = CompactPathSet.of(Arrays.asList(builder.paths).subList(0, builder.size));
+            this.deepPaths = builder.deepPaths != null
+                    ? CompactPathSet.of(builder.deepPaths) : Collections.<String>emptySet();
+        } else {
+            this.paths = builder.size == builder.paths.length
+                    ? builder.paths : Arrays.copyOf(builder.paths, builder.size);
+            this.compactPaths = null;
+            this.deepPaths = builder.deepPaths != null ? builder.deepPaths : Collections.<String>emptySet();
+        }
+        this.pathFilters = builder.pathFilters != null ? builder.pathFilters : Collections.<String, String[]>emptyMap();
+        this.compiledFilters = builder.pathFilters != null ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Creates a {@link Builder} for a request, allowing to set the deep flag and the filters of each path
+     * while sanitising the paths as they are added.
+     * @param requestType the request type
+     * @return the builder
+     */
+    @NotNull
+    public static Builder builder(@NotNull DistributionRequestType requestType) {
+        return new Builder(requestType);
+    }
+
+    /**
+     * Creates the minimal request equivalent to the given one. Duplicate paths are removed, as well as paths
+     * below a deep path which are fully distributed by it, i.e. paths without filters below a deep path without
+     * filters. The deep flag and the filters of the remaining paths are preserved, as well as the priority, the
+     * baseline and the deadline.
+     * The paths of the normalised request are sorted so that each path precedes its descendants, the normalisation
+     * takes O(n log n) time for n paths.
+     * @param request the request to normalise
+     * @return the normalised request
+     */
+    @NotNull
+    public static SimpleDistributionRequest normalise(@NotNull DistributionRequest request) {
+        String[] sorted = request.getPaths().clone();
+        Arrays.sort(sorted, DistributionPaths.HIERARCHICAL_ORDER);
+        Builder builder = new Builder(request.getRequestType())
+                .priority(request.getPriority())
+                .baseline(request.getBaseline())
+                .deadline(request.getDeadline());
+        String previous = null;
+        String deepRoot = null;
+        for (String path : sorted) {
+            if (path.equals(previous)) {
+                continue;
+            }
+            previous = path;
+            boolean deep = request.isDeep(path);
+            String[] filters = request.getFilters(path);
+            if (deepRoot != null && DistributionPaths.isAncestor(deepRoot, path)) {
+                if (filters.length == 0) {
+                    continue;
+                }
+            } else {
+                deepRoot = deep && filters.length == 0 ? path : null;
+            }
+            builder.addPath(path, deep, filters);
+        }
+        return builder.build();
     }
 
     /**
@@ -96,13 +192,39 @@ public final class SimpleDistributionRequest implements DistributionRequest {
         return requestType;
     }
 
+    @NotNull
+    @Override
+    public DistributionRequestPriority getPriority() {
+        return priority;
+    }
+
+    @Nullable
+    @Override
+    public DistributionBaseline getBaseline() {
+        return baseline;
+    }
+
+    @Override
+    public long getDeadline() {
+        return deadline;
+    }
+
     /**
-     * get the paths for this distribution request
+     * get the paths for this distribution request, requests built with {@link Builder#compact()} return a new
+     * sorted array on each call
      *
      * @return an array of paths
      */
     public String[] getPaths() {
-        return paths;
+        return paths != null ? paths : compactPaths.toArray(NO_PATHS);
+    }
+
+    @NotNull
+    @Override
+    public Spliterator<String> getPathSpliterator() {
+        return paths != null
+                ? Spliterators.spliterator(paths, Spliterator.ORDERED | Spliterator.IMMUTABLE)
+                : compactPaths.spliterator();
     }
 
 
@@ -117,30 +239,231 @@ public final class SimpleDistributionRequest implements DistributionRequest {
     @NotNull
     public String[] getFilters(String path) {
         String[] filters = pathFilters.get(path);
-        return filters != null ? filters : new String[0];
+        return filters != null ? filters : NO_FILTERS;
+    }
+
+    @NotNull
+    @Override
+    public CompiledPathFilter getCompiledFilter(String path) {
+        String[] filters = pathFilters.get(path);
+        if (filters == null || filters.length == 0) {
+            return CompiledPathFilter.INCLUDE_ALL;
+        }
+        if (compiledFilters == null) {
+            return CompiledPathFilter.compile(filters);
+        }
+        return compiledFilters.computeIfAbsent(path, p -> CompiledPathFilter.compile(filters));
+    }
+
+    /**
+     * Get the {@link DistributionPathIndex} over the paths of this request, the index is built on first access.
+     *
+     * @return the path index of this request
+     */
+    @NotNull
+    public DistributionPathIndex getPathIndex() {
+        DistributionPathIndex index = pathIndex;
+        if (index == null) {
+            index = DistributionPathIndex.of(this);
+            pathIndex = index;
+        }
+        return index;
     }
 
     @Override
     public String toString() {
         return "SimpleDistributionRequest{" +
                 "requestType=" + requestType +
-                ", paths=" + Arrays.toString(paths) +
+                ", priority=" + priority +
+                ", paths=" + (paths != null ? Arrays.toString(paths) : compactPaths) +
                 '}';
     }
 
-    private String[] sanitise(String[] paths) {
-        if (paths == null) return new String[] {};
-        List<String> pathsOut = Arrays.asList(paths).stream().filter(this::notEmpty).collect(Collectors.toList());
-        return pathsOut.toArray(new String[] {});
+    private static String[] sanitise(String[] paths) {
+        if (paths == null) return NO_PATHS;
+        int count = 0;
+        for (String path : paths) {
+            if (DistributionPaths.notEmpty(path)) count++;
+        }
+        if (count == paths.length) return paths.clone();
+        String[] pathsOut = new String[count];
+        int i = 0;
+        for (String path : paths) {
+            if (DistributionPaths.notEmpty(path)) pathsOut[i++] = path;
+        }
+        return pathsOut;
     }
 
-    private Set<String> sanitise(Set<String> paths) {
-        if (paths == null) return new HashSet<>();
-        return paths.stream().filter(this::notEmpty).collect(Collectors.toSet());
+    private static Set<String> sanitise(Set<String> paths) {
+        if (paths == null || paths.isEmpty()) return Collections.emptySet();
+        Set<String> pathsOut = new HashSet<>(capacity(paths.size()));
+        for (String path : paths) {
+            if (DistributionPaths.notEmpty(path)) pathsOut.add(path);
+        }
+        return pathsOut;
     }
-    
-    private boolean notEmpty(String path) {
-        return path != null && !path.trim().isEmpty();
+
+    private static Set<String> toSet(String[] paths) {
+        if (paths.length == 0) return Collections.emptySet();
+        Set<String> pathsOut = new HashSet<>(capacity(paths.length));
+        Collections.addAll(pathsOut, paths);
+        return pathsOut;
     }
 
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    /**
+     * A builder for {@link SimpleDistributionRequest}s. Empty paths are skipped as they are added and the deep
+     * paths and filters are only allocated when used, so that the built request holds no more than it needs.
+     * Builders are not thread safe. The built request takes over the collections of the builder rather than copying
+     * them, a builder used again after {@link #build()} copies them before its next change, so that the requests
+     * already built are not affected.
+     */
+    public static final class Builder {
+
+        private final DistributionRequestType requestType;
+
+        private String[] paths = new String[8];
+
+        private int size;
+
+        private Set<String> deepPaths;
+
+        private Map<String, String[]> pathFilters;
+
+        private boolean compact;
+
+        private DistributionRequestPriority priority = DistributionRequestPriority.NORMAL;
+
+        private DistributionBaseline baseline;
+
+        private long deadline = -1;
+
+        /**
+         * <code>true</code> if the collections of this builder are shared with the request built last
+         */
+        private boolean built;
+
+        private Builder(DistributionRequestType requestType) {
+            this.requestType = requestType;
+        }
+
+        /**
+         * Adds a "shallow" path without filters.
+         * @param path the path to be distributed, ignored if empty
+         * @return this builder
+         */
+        @NotNull
+        public Builder addPath(String path) {
+            return addPath(path, false);
+        }
+
+        /**
+         * Adds a "deep" path without filters.
+         * @param path the path to be distributed with all its children, ignored if empty
+         * @return this builder
+         */
+        @NotNull
+        public Builder addDeepPath(String path) {
+            return addPath(path, true);
+        }
+
+        /**
+         * Adds a path.
+         * @param path the path to be distributed, ignored if empty
+         * @param deep <code>true</code> if the path is to be distributed with all its children
+         * @param filters the filters applicable for the path
+         * @return this builder
+         */
+        @NotNull
+        public Builder addPath(String path, boolean deep, String... filters) {
+            if (!DistributionPaths.notEmpty(path)) {
+                return this;
+            }
+            if (built) {
+                paths = paths.clone();
+                deepPaths = deepPaths != null ? new HashSet<>(deepPaths) : null;
+                pathFilters = pathFilters != null ? new HashMap<>(pathFilters) : null;
+                built = false;
+            }
+            if (size == paths.length) {
+                paths = Arrays.copyOf(paths, size * 2);
+            }
+            paths[size++] = path;
+            if (deep) {
+                if (deepPaths == null) {
+                    deepPaths = new HashSet<>();
+                }
+                deepPaths.add(path);
+            }
+            if (filters != null && filters.length > 0) {
+                if (pathFilters == null) {
+                    pathFilters = new HashMap<>();
+                }
+                pathFilters.put(path, filters.clone());
+            }
+            return this;
+        }
+
+        /**
+         * Sets the priority of the request, {@link DistributionRequestPriority#NORMAL} by default.
+         * @param priority the priority
+         * @return this builder
+         */
+        @NotNull
+        public Builder priority(@NotNull DistributionRequestPriority priority) {
+            this.priority = Objects.requireNonNull(priority);
+            return this;
+        }
+
+        /**
+         * Sets the baseline of the request, asking for an incremental distribution.
+         * @param baseline the baseline, or {@code null} to distribute the content in full
+         * @return this builder
+         */
+        @NotNull
+        public Builder baseline(@Nullable DistributionBaseline baseline) {
+            this.baseline = baseline;
+            return this;
+        }
+
+        /**
+         * Sets the deadline of the request, after which it expires if its content has not been transported.
+         * @param deadline the deadline in milliseconds since the epoch, or {@code -1} if the request does not expire
+         * @return this builder
+         * @throws IllegalArgumentException if the deadline is neither positive nor {@code -1}
+         */
+        @NotNull
+        public Builder deadline(long deadline) {
+            if (deadline <= 0 && deadline != -1) {
+                throw new IllegalArgumentException("deadline must be positive or -1, was " + deadline);
+            }
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * Stores the paths and the deep paths of the request in {@link CompactPathSet}s, trading lookup and
+         * {@link SimpleDistributionRequest#getPaths()} speed for a much smaller heap footprint with large requests.
+         * The paths of a compact request are sorted and duplicate paths are dropped.
+         * @return this builder
+         */
+        @NotNull
+        public Builder compact() {
+            this.compact = true;
+            return this;
+        }
+
+        /**
+         * Builds the request.
+         * @return the request
+         */
+        @NotNull
+        public SimpleDistributionRequest build() {
+            built = true;
+            return new SimpleDistributionRequest(this);
+        }
+    }
 }
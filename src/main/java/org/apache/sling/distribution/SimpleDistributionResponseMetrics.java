@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An immutable {@link DistributionResponseMetrics} created with a {@link Builder}.
+ */
+public final class SimpleDistributionResponseMetrics implements DistributionResponseMetrics {
+
+    private final long[] durations;
+
+    private final long packageSize;
+
+    private final long nodeCount;
+
+    private SimpleDistributionResponseMetrics(Builder builder) {
+        this.durations = builder.durations.clone();
+        this.packageSize = builder.packageSize;
+        this.nodeCount = builder.nodeCount;
+    }
+
+    /**
+     * Creates a builder with no measurement.
+     * @return the builder
+     */
+    @NotNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public long getDuration(@NotNull DistributionPhase phase, @NotNull TimeUnit unit) {
+        long duration = durations[phase.ordinal()];
+        return duration < 0 ? -1 : unit.convert(duration, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public long getPackageSize() {
+        return packageSize;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleDistributionResponseMetrics{" +
+                "durations=" + Arrays.toString(durations) +
+                ", packageSize=" + packageSize +
+                ", nodeCount=" + nodeCount +
+                '}';
+    }
+
+    /**
+     * A builder for {@link SimpleDistributionResponseMetrics}.
+     */
+    public static final class Builder {
+
+        private final long[] durations = new long[DistributionPhase.values().length];
+
+        private long packageSize = -1;
+
+        private long nodeCount = -1;
+
+        private Builder() {
+            Arrays.fill(durations, -1);
+        }
+
+        /**
+         * Sets the time spent in a phase.
+         * @param phase the phase
+         * @param duration the duration, non negative
+         * @param unit the unit of the duration
+         * @return this builder
+         */
+        @NotNull
+        public Builder duration(@NotNull DistributionPhase phase, long duration, @NotNull TimeUnit unit) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("duration must not be negative, was " + duration);
+            }
+            durations[phase.ordinal()] = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets the size of the package.
+         * @param packageSize the size in bytes, non negative or {@code -1} if not known
+         * @return this builder
+         */
+        @NotNull
+        public Builder packageSize(long packageSize) {
+            this.packageSize = checkCount("packageSize", packageSize);
+            return this;
+        }
+
+        /**
+         * Sets the number of nodes in the package.
+         * @param nodeCount the number of nodes, non negative or {@code -1} if not known
+         * @return this builder
+         */
+        @NotNull
+        public Builder nodeCount(long nodeCount) {
+            this.nodeCount = checkCount("nodeCount", nodeCount);
+            return this;
+        }
+
+        /**
+         * Builds the metrics.
+         * @return the metrics
+         */
+        @NotNull
+        public SimpleDistributionResponseMetrics build() {
+            return new SimpleDistributionResponseMetrics(this);
+        }
+
+        private static long checkCount(String name, long value) {
+            if (value < -1) {
+                throw new IllegalArgumentException(name + " must not be negative unless -1, was " + value);
+            }
+            return value;
+        }
+    }
+}
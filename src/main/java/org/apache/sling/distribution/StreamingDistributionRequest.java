@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ * A {@link DistributionRequest} reading its paths from a lazy source, e.g. the result of a query, so that requests
+ * covering millions of paths can be distributed without holding all the paths in memory.
+ * </p>
+ * <p>
+ * The source is read each time the paths are iterated with {@link #getPathSpliterator()}, it must hence provide a
+ * new iterator over the same paths on every call. Empty paths are skipped. {@link #getPaths()} is kept for
+ * compatibility and materialises all the paths on each call, consumers able to process paths incrementally should
+ * prefer the spliterator.
+ * </p>
+ * <p>
+ * Like for {@link SimpleDistributionRequest}, all paths are either "deep" or "shallow". As the paths are not held,
+ * {@link #isDeep(String)} answers with the flag of the request for any path.
+ * </p>
+ */
+public final class StreamingDistributionRequest implements DistributionRequest {
+
+    private static final String[] NO_FILTERS = new String[0];
+
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private final DistributionRequestType requestType;
+
+    private final boolean deep;
+
+    private final Supplier<? extends Iterator<String>> source;
+
+    private final long sizeHint;
+
+    private final Map<String, String[]> pathFilters;
+
+    /**
+     * Creates a streaming distribution request.
+     * @param requestType the request type
+     * @param deep is <code>true</code> if all paths are "deep" and is <code>false</code> if all paths are "shallow"
+     * @param source the source providing an iterator over the paths on each call
+     * @param sizeHint the number of paths, or {@code -1} if not known
+     */
+    public StreamingDistributionRequest(@NotNull DistributionRequestType requestType, boolean deep,
+                                        @NotNull Supplier<? extends Iterator<String>> source, long sizeHint) {
+        this(requestType, deep, source, sizeHint, Collections.<String, String[]>emptyMap());
+    }
+
+    /**
+     * Creates a streaming distribution request with filters.
+     * @param requestType the request type
+     * @param deep is <code>true</code> if all paths are "deep" and is <code>false</code> if all paths are "shallow"
+     * @param source the source providing an iterator over the paths on each call
+     * @param sizeHint the number of paths, or {@code -1} if not known
+     * @param pathFilters the filters applicable for each path
+     */
+    public StreamingDistributionRequest(@NotNull DistributionRequestType requestType, boolean deep,
+                                        @NotNull Supplier<? extends Iterator<String>> source, long sizeHint,
+                                        @NotNull Map<String, String[]> pathFilters) {
+        this.requestType = Objects.requireNonNull(requestType);
+        this.deep = deep;
+        this.source = Objects.requireNonNull(source);
+        this.sizeHint = sizeHint;
+        this.pathFilters = Objects.requireNonNull(pathFilters);
+    }
+
+    @NotNull
+    @Override
+    public DistributionRequestType getRequestType() {
+        return requestType;
+    }
+
+    @NotNull
+    @Override
+    public String[] getPaths() {
+        // the hint is not trusted for more than the initial capacity, the list grows as the paths are read
+        List<String> paths = sizeHint >= 0
+                ? new ArrayList<String>((int) Math.min(sizeHint, MAX_INITIAL_CAPACITY)) : new ArrayList<String>();
+        getPathSpliterator().forEachRemaining(paths::add);
+        return paths.toArray(new String[0]);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The size hint given at construction is reported as the {@link Spliterator#estimateSize() estimated size}, the
+     * spliterator is not {@link Spliterator#SIZED} as the source may provide a different number of paths.
+     * </p>
+     */
+    @NotNull
+    @Override
+    public Spliterator<String> getPathSpliterator() {
+        return new PathSpliterator(source.get(), sizeHint >= 0 ? sizeHint : Long.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isDeep(String path) {
+        return deep;
+    }
+
+    @NotNull
+    @Override
+    public String[] getFilters(String path) {
+        String[] filters = pathFilters.get(path);
+        return filters != null ? filters : NO_FILTERS;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingDistributionRequest{" +
+                "requestType=" + requestType +
+                ", deep=" + deep +
+                ", sizeHint=" + sizeHint +
+                '}';
+    }
+
+    private static final class PathSpliterator extends Spliterators.AbstractSpliterator<String> {
+
+        private final Iterator<String> delegate;
+
+        PathSpliterator(Iterator<String> delegate, long estimatedSize) {
+            super(estimatedSize, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (delegate.hasNext()) {
+                String path = delegate.next();
+                if (DistributionPaths.notEmpty(path)) {
+                    action.accept(path);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
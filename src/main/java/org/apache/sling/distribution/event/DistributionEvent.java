@@ -18,16 +18,20 @@
  */
 package org.apache.sling.distribution.event;
 
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BASELINE;
 import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_COMPONENT_KIND;
 import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_COMPONENT_NAME;
 import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_DEEP_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_FINGERPRINT;
 import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_ID;
 import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PRIORITY;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_SUPERSEDED_BY;
 import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_TYPE;
 
-import java.util.Dictionary;
-import java.util.Hashtable;
+import java.util.Map;
 
+import org.apache.sling.distribution.CompactPathSet;
 import org.osgi.service.event.Event;
 
 public class DistributionEvent {
@@ -38,6 +42,12 @@ public class DistributionEvent {
     private final String distType;
     private final String[] distPaths;
     private final String[] distDeepPaths;
+    private final CompactPathSet compactPaths;
+    private final CompactPathSet compactDeepPaths;
+    private final String priority;
+    private final String baseline;
+    private final String fingerprint;
+    private final String supersededBy;
 
     public DistributionEvent(
             String packageId,
@@ -46,12 +56,83 @@ public class DistributionEvent {
             String distType,
             String[] distPaths,
             String[] distDeepPaths) {
+        this(packageId, componentName, componentKind, distType, distPaths,
+                distDeepPaths == null ? new String[] {} : distDeepPaths, null, null, null, null, null, null);
+    }
+
+    DistributionEvent(
+            String packageId,
+            String componentName,
+            String componentKind,
+            String distType,
+            String[] distPaths,
+            String[] distDeepPaths,
+            CompactPathSet compactPaths,
+            CompactPathSet compactDeepPaths,
+            String priority,
+            String baseline,
+            String fingerprint,
+            String supersededBy) {
         this.packageId = packageId;
         this.componentName = componentName;
         this.componentKind = componentKind;
         this.distType = distType;
         this.distPaths = distPaths;
-        this.distDeepPaths = distDeepPaths == null ? new String[] {} : distDeepPaths;
+        this.distDeepPaths = distDeepPaths;
+        this.compactPaths = compactPaths;
+        this.compactDeepPaths = compactDeepPaths;
+        this.priority = priority;
+        this.baseline = baseline;
+        this.fingerprint = fingerprint;
+        this.supersededBy = supersededBy;
+    }
+
+    /**
+     * Creates an event holding its paths in {@link CompactPathSet}s, the path arrays are only materialised
+     * when accessed or when converting to an OSGi {@link Event}.
+     */
+    public static DistributionEvent withCompactPaths(
+            String packageId,
+            String componentName,
+            String componentKind,
+            String distType,
+            CompactPathSet distPaths,
+            CompactPathSet distDeepPaths) {
+        return new DistributionEvent(packageId, componentName, componentKind, distType, null, null,
+                distPaths == null ? CompactPathSet.of() : distPaths,
+                distDeepPaths == null ? CompactPathSet.of() : distDeepPaths, null, null, null, null);
+    }
+
+    /**
+     * Creates a copy of this event for a request of the given priority.
+     */
+    public DistributionEvent withPriority(String priority) {
+        return new DistributionEvent(packageId, componentName, componentKind, distType, distPaths, distDeepPaths,
+                compactPaths, compactDeepPaths, priority, baseline, fingerprint, supersededBy);
+    }
+
+    /**
+     * Creates a copy of this event for an incremental request with the given baseline.
+     */
+    public DistributionEvent withBaseline(String baseline) {
+        return new DistributionEvent(packageId, componentName, componentKind, distType, distPaths, distDeepPaths,
+                compactPaths, compactDeepPaths, priority, baseline, fingerprint, supersededBy);
+    }
+
+    /**
+     * Creates a copy of this event for a package with the given fingerprint.
+     */
+    public DistributionEvent withFingerprint(String fingerprint) {
+        return new DistributionEvent(packageId, componentName, componentKind, distType, distPaths, distDeepPaths,
+                compactPaths, compactDeepPaths, priority, baseline, fingerprint, supersededBy);
+    }
+
+    /**
+     * Creates a copy of this event for a package superseded by the package with the given id.
+     */
+    public DistributionEvent withSupersededBy(String supersededBy) {
+        return new DistributionEvent(packageId, componentName, componentKind, distType, distPaths, distDeepPaths,
+                compactPaths, compactDeepPaths, priority, baseline, fingerprint, supersededBy);
     }
 
     public String getPackageId() {
@@ -71,31 +152,92 @@ public class DistributionEvent {
     }
 
     public String[] getDistPaths() {
-        return distPaths;
+        return compactPaths != null ? compactPaths.toArray(new String[0]) : distPaths;
     }
 
     public String[] getDistDeepPaths() {
-        return distDeepPaths;
+        return compactDeepPaths != null ? compactDeepPaths.toArray(new String[0]) : distDeepPaths;
+    }
+
+    /**
+     * @return the name of the {@link org.apache.sling.distribution.DistributionRequestPriority} of the request,
+     * or {@code null} if not known
+     */
+    public String getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return the string form of the {@link org.apache.sling.distribution.DistributionBaseline} of the request,
+     * or {@code null} for a full distribution
+     */
+    public String getBaseline() {
+        return baseline;
     }
 
+    /**
+     * @return the fingerprint of the package, or {@code null} if not known
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return the id of the package superseding the package of this event, or {@code null} if it was not superseded
+     */
+    public String getSupersededBy() {
+        return supersededBy;
+    }
+
+    /**
+     * Converts this event to an OSGi {@link Event} for the given topic. The properties of the OSGi event are a
+     * read-only view over this event, they are only resolved when read by the handlers, so that publishing
+     * costs almost nothing when no handler reads them.
+     *
+     * @param topic the topic of the OSGi event
+     * @return the OSGi event
+     */
     public Event toEvent(String topic) {
-        Dictionary<String, Object> props = new Hashtable<String, Object>();
-        props.put(DISTRIBUTION_PACKAGE_ID, packageId);
-        props.put(DISTRIBUTION_COMPONENT_NAME, componentName);
-        props.put(DISTRIBUTION_COMPONENT_KIND, componentKind);
-        props.put(DISTRIBUTION_TYPE, distType);
-        props.put(DISTRIBUTION_PATHS, distPaths);
-        props.put(DISTRIBUTION_DEEP_PATHS, distDeepPaths);
-        return new Event(topic, props);
+        return new Event(topic, new DistributionEventView(this));
     }
 
+    /**
+     * Get a read-only map view of the properties of this event, keyed by the {@link DistributionEventProperties}.
+     *
+     * @return the properties of this event
+     */
+    public Map<String, Object> asMap() {
+        return new DistributionEventView(this);
+    }
+
+    /**
+     * Creates a {@link DistributionEvent} from an OSGi {@link Event}, the properties are referenced as they are
+     * and only converted to strings when they are not already strings.
+     *
+     * @param event the OSGi event
+     * @return the distribution event
+     */
     public static DistributionEvent fromEvent(Event event) {
+        String[] distDeepPaths = (String[])event.getProperty(DISTRIBUTION_DEEP_PATHS);
         return new DistributionEvent(
-                event.getProperty(DISTRIBUTION_PACKAGE_ID).toString(), 
-                event.getProperty(DISTRIBUTION_COMPONENT_NAME).toString(),
-                event.getProperty(DISTRIBUTION_COMPONENT_KIND).toString(),
-                event.getProperty(DISTRIBUTION_TYPE).toString(),
+                asString(event.getProperty(DISTRIBUTION_PACKAGE_ID)),
+                asString(event.getProperty(DISTRIBUTION_COMPONENT_NAME)),
+                asString(event.getProperty(DISTRIBUTION_COMPONENT_KIND)),
+                asString(event.getProperty(DISTRIBUTION_TYPE)),
                 (String[])event.getProperty(DISTRIBUTION_PATHS),
-                (String[])event.getProperty(DISTRIBUTION_DEEP_PATHS));
+                distDeepPaths == null ? new String[] {} : distDeepPaths,
+                null,
+                null,
+                asString(event.getProperty(DISTRIBUTION_PRIORITY)),
+                asString(event.getProperty(DISTRIBUTION_BASELINE)),
+                asString(event.getProperty(DISTRIBUTION_PACKAGE_FINGERPRINT)),
+                asString(event.getProperty(DISTRIBUTION_SUPERSEDED_BY)));
+    }
+
+    private static String asString(Object value) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        return value.toString();
     }
 }
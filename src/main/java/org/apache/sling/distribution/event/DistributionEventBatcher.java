@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.event;
+
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_BASELINES;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_COMPONENT_KINDS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_COMPONENT_NAMES;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_COUNT;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_DEEP_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_FINGERPRINTS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_PACKAGE_IDS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_PRIORITIES;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_SUPERSEDED_BY;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_TYPES;
+import static org.apache.sling.distribution.event.DistributionEventTopics.BATCH_EVENT_BASE;
+import static org.apache.sling.distribution.event.DistributionEventTopics.EVENT_BASE;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * <p>
+ * Aggregates {@link DistributionEvent}s per topic and posts them as a single batch event, on the corresponding
+ * topic under {@link DistributionEventTopics#BATCH_EVENT_BASE}, to relieve the {@link EventAdmin} at high package
+ * rates. Batch events are hence only received by the handlers subscribed to batch topics.
+ * </p>
+ * <p>
+ * A batch is posted once the number of aggregated events reaches the limit or once the time window opened by its
+ * first event has elapsed. Since no thread is started, callers are expected to invoke {@link #flushIfDue()}
+ * periodically, and {@link #flush()} on shutdown. With a sampling rate greater than one, only every n-th event of a
+ * batch is carried in full while the {@code distribution.batch.count} property still counts all of them, which
+ * suits subscribers only interested in counts.
+ * </p>
+ * <p>
+ * Handlers receive the batched events through {@link #expand(Event)}. Instances are thread safe, the events are
+ * posted outside of the batcher lock.
+ * </p>
+ */
+public final class DistributionEventBatcher {
+
+    private final EventAdmin eventAdmin;
+
+    private final int maxCount;
+
+    private final long windowMillis;
+
+    private final int sampling;
+
+    private final LongSupplier clock;
+
+    private final Map<String, Batch> batches = new LinkedHashMap<>();
+
+    /**
+     * Creates a batcher carrying every event in full.
+     * @param eventAdmin the event admin the batch events are posted to
+     * @param maxCount the number of aggregated events causing an immediate flush of a batch
+     * @param windowMillis the time during which the events of a batch are aggregated, in milliseconds
+     */
+    public DistributionEventBatcher(@NotNull EventAdmin eventAdmin, int maxCount, long windowMillis) {
+        this(eventAdmin, maxCount, windowMillis, 1);
+    }
+
+    /**
+     * Creates a batcher.
+     * @param eventAdmin the event admin the batch events are posted to
+     * @param maxCount the number of aggregated events causing an immediate flush of a batch
+     * @param windowMillis the time during which the events of a batch are aggregated, in milliseconds
+     * @param sampling carry one event in full out of {@code sampling} events
+     */
+    public DistributionEventBatcher(@NotNull EventAdmin eventAdmin, int maxCount, long windowMillis, int sampling) {
+        this(eventAdmin, maxCount, windowMillis, sampling, System::currentTimeMillis);
+    }
+
+    DistributionEventBatcher(EventAdmin eventAdmin, int maxCount, long windowMillis, int sampling, LongSupplier clock) {
+        if (maxCount < 1 || windowMillis < 0 || sampling < 1) {
+            throw new IllegalArgumentException("invalid count limit " + maxCount + ", window " + windowMillis
+                    + " or sampling " + sampling);
+        }
+        this.eventAdmin = Objects.requireNonNull(eventAdmin);
+        this.maxCount = maxCount;
+        this.windowMillis = windowMillis;
+        this.sampling = sampling;
+        this.clock = clock;
+    }
+
+    /**
+     * Aggregates an event, posting its batch if it is due.
+     * @param topic the topic the event would have been raised on, under {@link DistributionEventTopics#EVENT_BASE}
+     * @param event the event
+     * @throws IllegalArgumentException if the topic is not a distribution topic
+     */
+    public void add(@NotNull String topic, @NotNull DistributionEvent event) {
+        if (!topic.startsWith(EVENT_BASE + "/")) {
+            throw new IllegalArgumentException("not a distribution topic " + topic);
+        }
+        Event batchEvent = null;
+        synchronized (this) {
+            Batch batch = batches.get(topic);
+            if (batch == null) {
+                batch = new Batch(topic, clock.getAsLong());
+                batches.put(topic, batch);
+            }
+            if (batch.count++ % sampling == 0) {
+                batch.events.add(event);
+            }
+            if (isDue(batch)) {
+                batches.remove(topic);
+                batchEvent = batch.toEvent();
+            }
+        }
+        post(Collections.singletonList(batchEvent));
+    }
+
+    /**
+     * Posts the batches whose time window has elapsed.
+     */
+    public void flushIfDue() {
+        post(drain(false));
+    }
+
+    /**
+     * Posts all the batches regardless of their time window.
+     */
+    public void flush() {
+        post(drain(true));
+    }
+
+    /**
+     * Checks whether an event is a batch event.
+     * @param event the event
+     * @return <code>true</code> if the event aggregates distribution events
+     */
+    public static boolean isBatch(@NotNull Event event) {
+        return event.getTopic().startsWith(BATCH_EVENT_BASE + "/") && event.containsProperty(DISTRIBUTION_BATCH_COUNT);
+    }
+
+    /**
+     * Get the number of events a batch event stands for, including the events sampled out of it.
+     * @param event the batch event
+     * @return the number of events, or {@code 1} for an event which is not a batch event
+     */
+    public static int getCount(@NotNull Event event) {
+        Object count = event.getProperty(DISTRIBUTION_BATCH_COUNT);
+        return count instanceof Integer ? (Integer) count : 1;
+    }
+
+    /**
+     * Get the topic of the batch events aggregating the events of a distribution topic, e.g. to subscribe to them.
+     * @param topic the topic of the batched events, under {@link DistributionEventTopics#EVENT_BASE}
+     * @return the topic of the batch events
+     */
+    @NotNull
+    public static String getBatchTopic(@NotNull String topic) {
+        return topic.startsWith(EVENT_BASE + "/") ? BATCH_EVENT_BASE + topic.substring(EVENT_BASE.length()) : topic;
+    }
+
+    /**
+     * Get the topic the events aggregated by a batch event were raised on.
+     * @param event the batch event
+     * @return the topic of the batched events
+     */
+    @NotNull
+    public static String getBatchedTopic(@NotNull Event event) {
+        String topic = event.getTopic();
+        return topic.startsWith(BATCH_EVENT_BASE + "/") ? EVENT_BASE + topic.substring(BATCH_EVENT_BASE.length())
+                : topic;
+    }
+
+    /**
+     * Expands a batch event into the events it carries in full. An event which is not a batch event is
+     * expanded to itself.
+     * @param event the event
+     * @return the events
+     */
+    @NotNull
+    public static List<DistributionEvent> expand(@NotNull Event event) {
+        if (!isBatch(event)) {
+            return Collections.singletonList(DistributionEvent.fromEvent(event));
+        }
+        String[] packageIds = (String[]) event.getProperty(DISTRIBUTION_BATCH_PACKAGE_IDS);
+        String[] componentNames = (String[]) event.getProperty(DISTRIBUTION_BATCH_COMPONENT_NAMES);
+        String[] componentKinds = (String[]) event.getProperty(DISTRIBUTION_BATCH_COMPONENT_KINDS);
+        String[] types = (String[]) event.getProperty(DISTRIBUTION_BATCH_TYPES);
+        String[][] paths = (String[][]) event.getProperty(DISTRIBUTION_BATCH_PATHS);
+        String[][] deepPaths = (String[][]) event.getProperty(DISTRIBUTION_BATCH_DEEP_PATHS);
+        String[] priorities = (String[]) event.getProperty(DISTRIBUTION_BATCH_PRIORITIES);
+        String[] baselines = (String[]) event.getProperty(DISTRIBUTION_BATCH_BASELINES);
+        String[] fingerprints = (String[]) event.getProperty(DISTRIBUTION_BATCH_FINGERPRINTS);
+        String[] supersededBy = (String[]) event.getProperty(DISTRIBUTION_BATCH_SUPERSEDED_BY);
+        List<DistributionEvent> events = new ArrayList<>(packageIds.length);
+        for (int i = 0; i < packageIds.length; i++) {
+            events.add(new DistributionEvent(packageIds[i], componentNames[i], componentKinds[i], types[i],
+                    paths[i], deepPaths[i] != null ? deepPaths[i] : new String[] {}, null, null, at(priorities, i),
+                    at(baselines, i), at(fingerprints, i), at(supersededBy, i)));
+        }
+        return events;
+    }
+
+    private static String at(String[] values, int index) {
+        return values != null ? values[index] : null;
+    }
+
+    private boolean isDue(Batch batch) {
+        return batch.count >= maxCount || clock.getAsLong() - batch.start >= windowMillis;
+    }
+
+    private synchronized List<Event> drain(boolean all) {
+        List<Event> events = new ArrayList<>();
+        for (Iterator<Batch> it = batches.values().iterator(); it.hasNext(); ) {
+            Batch batch = it.next();
+            if (all || isDue(batch)) {
+                it.remove();
+                events.add(batch.toEvent());
+            }
+        }
+        return events;
+    }
+
+    private void post(List<Event> events) {
+        for (Event event : events) {
+            if (event != null) {
+                eventAdmin.postEvent(event);
+            }
+        }
+    }
+
+    private static final class Batch {
+
+        private final String topic;
+
+        private final long start;
+
+        private final List<DistributionEvent> events = new ArrayList<>();
+
+        private int count;
+
+        Batch(String topic, long start) {
+            this.topic = topic;
+            this.start = start;
+        }
+
+        Event toEvent() {
+            int size = events.size();
+            String[] packageIds = new String[size];
+            String[] componentNames = new String[size];
+            String[] componentKinds = new String[size];
+            String[] types = new String[size];
+            String[][] paths = new String[size][];
+            String[][] deepPaths = new String[size][];
+            String[] priorities = new String[size];
+            String[] baselines = new String[size];
+            String[] fingerprints = new String[size];
+            String[] supersededBy = new String[size];
+            for (int i = 0; i < size; i++) {
+                DistributionEvent event = events.get(i);
+                packageIds[i] = event.getPackageId();
+                componentNames[i] = event.getComponentName();
+                componentKinds[i] = event.getComponentKind();
+                types[i] = event.getDistType();
+                paths[i] = event.getDistPaths();
+                deepPaths[i] = event.getDistDeepPaths();
+                priorities[i] = event.getPriority();
+                baselines[i] = event.getBaseline();
+                fingerprints[i] = event.getFingerprint();
+                supersededBy[i] = event.getSupersededBy();
+            }
+            Map<String, Object> props = new HashMap<>();
+            props.put(DISTRIBUTION_BATCH_COUNT, count);
+            props.put(DISTRIBUTION_BATCH_PACKAGE_IDS, packageIds);
+            props.put(DISTRIBUTION_BATCH_COMPONENT_NAMES, componentNames);
+            props.put(DISTRIBUTION_BATCH_COMPONENT_KINDS, componentKinds);
+            props.put(DISTRIBUTION_BATCH_TYPES, types);
+            props.put(DISTRIBUTION_BATCH_PATHS, paths);
+            props.put(DISTRIBUTION_BATCH_DEEP_PATHS, deepPaths);
+            props.put(DISTRIBUTION_BATCH_PRIORITIES, priorities);
+            props.put(DISTRIBUTION_BATCH_BASELINES, baselines);
+            props.put(DISTRIBUTION_BATCH_FINGERPRINTS, fingerprints);
+            props.put(DISTRIBUTION_BATCH_SUPERSEDED_BY, supersededBy);
+            return new Event(getBatchTopic(topic), props);
+        }
+    }
+}
@@ -57,8 +57,89 @@ public interface DistributionEventProperties {
      */
     String DISTRIBUTION_PACKAGE_ID = "distribution.package.id";
 
+    /**
+     * property containing the size of the package in bytes
+     */
+    String DISTRIBUTION_PACKAGE_SIZE = "distribution.package.size";
+
+    /**
+     * property containing the fingerprint of the package, a hash of its serialised content
+     */
+    String DISTRIBUTION_PACKAGE_FINGERPRINT = "distribution.package.fingerprint";
+
+    /**
+     * property containing the name of the priority of the distribution request
+     */
+    String DISTRIBUTION_PRIORITY = "distribution.priority";
+
+    /**
+     * property containing the baseline of an incremental distribution request, in the string form of
+     * {@link org.apache.sling.distribution.DistributionBaseline}
+     */
+    String DISTRIBUTION_BASELINE = "distribution.baseline";
+
+    /**
+     * property containing the id of the package superseding the package of the event
+     */
+    String DISTRIBUTION_SUPERSEDED_BY = "distribution.superseded.by";
+
     /**
      * property containing the time when an item was created and enqueued for distribution
      */
     String DISTRIBUTION_ENQUEUE_TIMESTAMP = "distribution.enqueue.timestamp";
+
+    /**
+     * property of batch events containing the number of events the batch stands for, including the sampled out ones
+     */
+    String DISTRIBUTION_BATCH_COUNT = "distribution.batch.count";
+
+    /**
+     * property of batch events containing the package ids of the batched events
+     */
+    String DISTRIBUTION_BATCH_PACKAGE_IDS = "distribution.batch.package.ids";
+
+    /**
+     * property of batch events containing the component names of the batched events
+     */
+    String DISTRIBUTION_BATCH_COMPONENT_NAMES = "distribution.batch.component.names";
+
+    /**
+     * property of batch events containing the component kinds of the batched events
+     */
+    String DISTRIBUTION_BATCH_COMPONENT_KINDS = "distribution.batch.component.kinds";
+
+    /**
+     * property of batch events containing the request types of the batched events
+     */
+    String DISTRIBUTION_BATCH_TYPES = "distribution.batch.types";
+
+    /**
+     * property of batch events containing the paths of each batched event, as a {@code String[][]}
+     */
+    String DISTRIBUTION_BATCH_PATHS = "distribution.batch.paths";
+
+    /**
+     * property of batch events containing the deep paths of each batched event, as a {@code String[][]}
+     */
+    String DISTRIBUTION_BATCH_DEEP_PATHS = "distribution.batch.deep.paths";
+
+    /**
+     * property of batch events containing the request priorities of the batched events
+     */
+    String DISTRIBUTION_BATCH_PRIORITIES = "distribution.batch.priorities";
+
+    /**
+     * property of batch events containing the request baselines of the batched events
+     */
+    String DISTRIBUTION_BATCH_BASELINES = "distribution.batch.baselines";
+
+    /**
+     * property of batch events containing the package fingerprints of the batched events
+     */
+    String DISTRIBUTION_BATCH_FINGERPRINTS = "distribution.batch.fingerprints";
+
+    /**
+     * property of batch events containing the ids of the packages superseding the packages of the batched events
+     */
+    String DISTRIBUTION_BATCH_SUPERSEDED_BY = "distribution.batch.superseded.by";
 }
@@ -52,8 +52,35 @@ public interface DistributionEventTopics {
      */
     String AGENT_PACKAGE_DROPPED = EVENT_BASE + "/agent/package/dropped";
 
+    /**
+     * Event raised when a content package was removed from a distribution queue
+     * because its request was cancelled.
+     */
+    String AGENT_PACKAGE_CANCELLED = EVENT_BASE + "/agent/package/cancelled";
+
+    /**
+     * Event raised when a content package was removed from a distribution queue
+     * because the deadline of its request passed.
+     */
+    String AGENT_PACKAGE_EXPIRED = EVENT_BASE + "/agent/package/expired";
+
+    /**
+     * Event raised when a content package was removed from a distribution queue
+     * because a newer package covering all of its content was queued.
+     */
+    String AGENT_PACKAGE_SUPERSEDED = EVENT_BASE + "/agent/package/superseded";
+
     /**
      * Event raised after successfully importing a content package.
      */
     String IMPORTER_PACKAGE_IMPORTED = EVENT_BASE + "/importer/package/imported";
+
+    /**
+     * Base of the topics of batch events, a batch event aggregating events of a
+     * given topic is raised on that topic with {@link #EVENT_BASE} replaced by
+     * this base, e.g. {@code BATCH_EVENT_BASE + "/agent/package/created"}. The
+     * base lies outside of {@link #EVENT_BASE}, so that the handlers subscribed
+     * to distribution events with wildcards do not receive batch events.
+     */
+    String BATCH_EVENT_BASE = "org/apache/sling/distribution-batch";
 }
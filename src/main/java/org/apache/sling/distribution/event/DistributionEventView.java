@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.event;
+
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BASELINE;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_COMPONENT_KIND;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_COMPONENT_NAME;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_DEEP_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_FINGERPRINT;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_ID;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PRIORITY;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_SUPERSEDED_BY;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_TYPE;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.osgi.service.event.EventProperties;
+
+/**
+ * Read-only event properties backed by the fields of a {@link DistributionEvent}. The properties are resolved on
+ * access, so that converting a {@link DistributionEvent} to an OSGi event neither allocates a table nor copies
+ * the fields. As for {@link java.util.Hashtable} based properties, properties with a {@code null} value are absent.
+ */
+final class DistributionEventView extends EventProperties {
+
+    private static final String[] KEYS = {
+            DISTRIBUTION_PACKAGE_ID,
+            DISTRIBUTION_COMPONENT_NAME,
+            DISTRIBUTION_COMPONENT_KIND,
+            DISTRIBUTION_TYPE,
+            DISTRIBUTION_PATHS,
+            DISTRIBUTION_DEEP_PATHS,
+            DISTRIBUTION_PRIORITY,
+            DISTRIBUTION_BASELINE,
+            DISTRIBUTION_PACKAGE_FINGERPRINT,
+            DISTRIBUTION_SUPERSEDED_BY
+    };
+
+    private final DistributionEvent event;
+
+    private final Map<String, Object> map = new AbstractMap<String, Object>() {
+
+        private final Set<Entry<String, Object>> entries = new AbstractSet<Entry<String, Object>>() {
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return DistributionEventView.this.size();
+            }
+        };
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return entries;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return DistributionEventView.this.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return DistributionEventView.this.containsKey(key);
+        }
+    };
+
+    private volatile String[] paths;
+
+    private volatile String[] deepPaths;
+
+    DistributionEventView(DistributionEvent event) {
+        super(Collections.<String, Object>emptyMap());
+        this.event = event;
+    }
+
+    /**
+     * @return the event backing this view
+     */
+    DistributionEvent getEvent() {
+        return event;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        switch ((String) key) {
+            case DISTRIBUTION_PACKAGE_ID:
+                return event.getPackageId();
+            case DISTRIBUTION_COMPONENT_NAME:
+                return event.getComponentName();
+            case DISTRIBUTION_COMPONENT_KIND:
+                return event.getComponentKind();
+            case DISTRIBUTION_TYPE:
+                return event.getDistType();
+            case DISTRIBUTION_PATHS:
+                return getPaths();
+            case DISTRIBUTION_DEEP_PATHS:
+                return getDeepPaths();
+            case DISTRIBUTION_PRIORITY:
+                return event.getPriority();
+            case DISTRIBUTION_BASELINE:
+                return event.getBaseline();
+            case DISTRIBUTION_PACKAGE_FINGERPRINT:
+                return event.getFingerprint();
+            case DISTRIBUTION_SUPERSEDED_BY:
+                return event.getSupersededBy();
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return map.entrySet();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return map.keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return map.values();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (String key : KEYS) {
+            if (get(key) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return map.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+
+    private String[] getPaths() {
+        String[] value = paths;
+        if (value == null) {
+            value = event.getDistPaths();
+            paths = value;
+        }
+        return value;
+    }
+
+    private String[] getDeepPaths() {
+        String[] value = deepPaths;
+        if (value == null) {
+            value = event.getDistDeepPaths();
+            deepPaths = value;
+        }
+        return value;
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int index = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return index < KEYS.length;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String key = KEYS[index];
+            index = advance(index + 1);
+            return new AbstractMap.SimpleImmutableEntry<String, Object>(key, get(key));
+        }
+
+        private int advance(int from) {
+            int i = from;
+            while (i < KEYS.length && get(KEYS[i]) == null) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.distribution.DistributionRequestType;
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ConsumerType;
+
+/**
+ * <p>
+ * A service collecting metrics about the distribution lifecycle, keyed by agent name and
+ * {@link DistributionRequestType}.
+ * </p>
+ * <p>
+ * Distribution agents call the service directly at each {@link DistributionStage}, which avoids the cost of
+ * dispatching events to a handler computing the same figures. Each call counts one occurrence of the stage and,
+ * when a latency is given, records it for the stage. Implementations are expected to be thread safe and not to
+ * allocate when recording.
+ * </p>
+ */
+@ConsumerType
+public interface DistributionMetrics {
+
+    /**
+     * A {@link DistributionMetrics} ignoring every measurement.
+     */
+    DistributionMetrics NOOP = (agentName, requestType, stage, latencyNanos) -> { };
+
+    /**
+     * Records an occurrence of a stage.
+     * @param agentName the name of the agent
+     * @param requestType the type of the distributed request
+     * @param stage the stage reached
+     * @param latencyNanos the latency associated with the stage in nanoseconds, or {@code -1} to only count it
+     */
+    void record(@NotNull String agentName, @NotNull DistributionRequestType requestType,
+                @NotNull DistributionStage stage, long latencyNanos);
+
+    /**
+     * Records an occurrence of a stage with the time spent since the package was enqueued as latency.
+     * @param agentName the name of the agent
+     * @param requestType the type of the distributed request
+     * @param stage the stage reached
+     * @param enqueueTimestamp the time the package was enqueued, in milliseconds since the epoch, as carried by the
+     * {@link org.apache.sling.distribution.event.DistributionEventProperties#DISTRIBUTION_ENQUEUE_TIMESTAMP} property
+     */
+    default void recordSinceEnqueue(@NotNull String agentName, @NotNull DistributionRequestType requestType,
+                                    @NotNull DistributionStage stage, long enqueueTimestamp) {
+        long elapsed = System.currentTimeMillis() - enqueueTimestamp;
+        record(agentName, requestType, stage, TimeUnit.MILLISECONDS.toNanos(Math.max(0, elapsed)));
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.metrics;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * The stages of the distribution lifecycle recorded by {@link DistributionMetrics}, matching the topics of
+ * {@link org.apache.sling.distribution.event.DistributionEventTopics}.
+ */
+@ProviderType
+public enum DistributionStage {
+
+    /**
+     * A content package has been created, the latency is the package creation time
+     */
+    CREATED,
+
+    /**
+     * A content package has been stored to the distribution queues
+     */
+    QUEUED,
+
+    /**
+     * A content package has been distributed, the latency is the time spent since it was enqueued
+     */
+    DISTRIBUTED,
+
+    /**
+     * A content package has been dropped from the queues, the latency is the time spent since it was enqueued
+     */
+    DROPPED,
+
+    /**
+     * A content package has been imported, the latency is the import time
+     */
+    IMPORTED
+}
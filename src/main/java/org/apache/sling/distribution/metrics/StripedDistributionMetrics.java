@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.metrics;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.sling.distribution.DistributionRequestType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ * A {@link DistributionMetrics} keeping its figures in memory.
+ * </p>
+ * <p>
+ * Each agent gets a fixed table of counters and {@link LatencyHistogram}s, one per {@link DistributionRequestType}
+ * and {@link DistributionStage}, created the first time the agent records a measurement. Counters are
+ * {@link LongAdder}s, so that concurrent agents threads do not contend on a single value, and recording does not
+ * allocate once the agent table exists.
+ * </p>
+ */
+public class StripedDistributionMetrics implements DistributionMetrics {
+
+    private static final int STAGES = DistributionStage.values().length;
+
+    private static final int CELLS = DistributionRequestType.values().length * STAGES;
+
+    private final ConcurrentMap<String, Cell[]> agents = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(@NotNull String agentName, @NotNull DistributionRequestType requestType,
+                       @NotNull DistributionStage stage, long latencyNanos) {
+        Cell[] cells = agents.get(agentName);
+        if (cells == null) {
+            cells = agents.computeIfAbsent(agentName, name -> newCells());
+        }
+        Cell cell = cells[index(requestType, stage)];
+        cell.count.increment();
+        if (latencyNanos >= 0) {
+            cell.latency.record(latencyNanos);
+        }
+    }
+
+    /**
+     * get the names of the agents which recorded measurements
+     *
+     * @return the agent names
+     */
+    @NotNull
+    public Set<String> getAgentNames() {
+        return Collections.unmodifiableSet(agents.keySet());
+    }
+
+    /**
+     * get the number of times a stage was reached
+     *
+     * @param agentName the name of the agent
+     * @param requestType the type of the requests
+     * @param stage the stage
+     * @return the number of occurrences of the stage
+     */
+    public long getCount(@NotNull String agentName, @NotNull DistributionRequestType requestType,
+                         @NotNull DistributionStage stage) {
+        Cell[] cells = agents.get(agentName);
+        return cells == null ? 0 : cells[index(requestType, stage)].count.sum();
+    }
+
+    /**
+     * get the latencies recorded for a stage
+     *
+     * @param agentName the name of the agent
+     * @param requestType the type of the requests
+     * @param stage the stage
+     * @return the latency histogram, empty if the agent did not record any measurement
+     */
+    @NotNull
+    public LatencyHistogram getLatency(@NotNull String agentName, @NotNull DistributionRequestType requestType,
+                                       @NotNull DistributionStage stage) {
+        Cell[] cells = agents.get(agentName);
+        return cells == null ? new LatencyHistogram() : cells[index(requestType, stage)].latency;
+    }
+
+    /**
+     * get the ratio of dropped packages among the packages which left the queues
+     *
+     * @param agentName the name of the agent
+     * @param requestType the type of the requests
+     * @return the drop rate between {@code 0} and {@code 1}, {@code 0} if no package left the queues
+     */
+    public double getDropRate(@NotNull String agentName, @NotNull DistributionRequestType requestType) {
+        long dropped = getCount(agentName, requestType, DistributionStage.DROPPED);
+        long done = dropped + getCount(agentName, requestType, DistributionStage.DISTRIBUTED);
+        return done == 0 ? 0 : (double) dropped / done;
+    }
+
+    /**
+     * Discards the measurements of all agents.
+     */
+    public void reset() {
+        agents.clear();
+    }
+
+    private static int index(DistributionRequestType requestType, DistributionStage stage) {
+        return requestType.ordinal() * STAGES + stage.ordinal();
+    }
+
+    private static Cell[] newCells() {
+        Cell[] cells = new Cell[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            cells[i] = new Cell();
+        }
+        return cells;
+    }
+
+    private static final class Cell {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+    }
+}
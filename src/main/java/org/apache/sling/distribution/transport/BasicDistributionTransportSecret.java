@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.transport;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link DistributionTransportSecret} for HTTP basic authentication. The credentials map and the
+ * {@code Authorization} header are built once, when the secret is created, and shared by all the requests.
+ */
+public final class BasicDistributionTransportSecret implements DistributionTransportSecret {
+
+    /**
+     * The key of the user name in the {@link #asCredentialsMap() credentials}
+     */
+    public static final String USERNAME = "username";
+
+    /**
+     * The key of the password in the {@link #asCredentialsMap() credentials}
+     */
+    public static final String PASSWORD = "password";
+
+    private final Map<String, String> credentials;
+
+    private final String authorizationHeader;
+
+    private final long version;
+
+    /**
+     * Creates a secret.
+     * @param username the user name
+     * @param password the password
+     * @param version the version of the secret, to be changed when the credentials change
+     */
+    public BasicDistributionTransportSecret(@NotNull String username, @NotNull String password, long version) {
+        Map<String, String> map = new HashMap<>(4);
+        map.put(USERNAME, Objects.requireNonNull(username));
+        map.put(PASSWORD, Objects.requireNonNull(password));
+        this.credentials = Collections.unmodifiableMap(map);
+        this.authorizationHeader = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.version = version;
+    }
+
+    @NotNull
+    @Override
+    public Map<String, String> asCredentialsMap() {
+        return credentials;
+    }
+
+    @NotNull
+    @Override
+    public String getAuthorizationHeader() {
+        return authorizationHeader;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "BasicDistributionTransportSecret{username=" + credentials.get(USERNAME) + ", version=" + version + '}';
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.transport;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * A {@link DistributionTransportSecretProvider} caching the secrets of another provider, for providers whose
+ * secrets are costly to obtain, e.g. from a keystore or a token endpoint.
+ * </p>
+ * <p>
+ * Secrets are cached by the scheme and authority of the URI, for a fixed time to live. A secret read within the
+ * refresh-ahead window before it expires, or after it expired, is reloaded in the background on the given
+ * {@link Executor}, the callers getting the cached secret meanwhile, so that they do not block once the cache is
+ * warm. An expired secret is only served until its refresh completes: when the refresh fails, the secret is dropped
+ * and the next caller loads it. Concurrent misses for the same key are collapsed into a single load, the callers
+ * waiting for a load done by another thread for at most the load timeout. When the cache is full, the least recently
+ * used secret is evicted. {@code null} secrets and failures are not cached.
+ * </p>
+ * <p>
+ * Instances are thread safe.
+ * </p>
+ */
+public final class CachingDistributionTransportSecretProvider implements DistributionTransportSecretProvider {
+
+    private final DistributionTransportSecretProvider delegate;
+
+    private final long ttlMillis;
+
+    private final long refreshAheadMillis;
+
+    private final int maxSize;
+
+    private final long loadTimeoutMillis;
+
+    private final Executor executor;
+
+    private final LongSupplier clock;
+
+    // in access order so that the least recently used secret is evicted first, guarded by itself
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<String, CachingDistributionTransportSecretProvider.Entry> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    /**
+     * Creates a caching provider.
+     * @param delegate the provider whose secrets are cached
+     * @param ttlMillis the time to live of a cached secret, in milliseconds
+     * @param refreshAheadMillis the time before expiry from which a secret is refreshed in the background, in
+     *                           milliseconds, {@code 0} to disable refreshing ahead
+     * @param maxSize the maximum number of cached secrets
+     * @param loadTimeoutMillis the maximum time to wait for a secret being loaded by another thread, in milliseconds
+     * @param executor the executor running the background refreshes
+     */
+    public CachingDistributionTransportSecretProvider(@NotNull DistributionTransportSecretProvider delegate,
+                                                      long ttlMillis, long refreshAheadMillis, int maxSize,
+                                                      long loadTimeoutMillis, @NotNull Executor executor) {
+        this(delegate, ttlMillis, refreshAheadMillis, maxSize, loadTimeoutMillis, executor, System::currentTimeMillis);
+    }
+
+    CachingDistributionTransportSecretProvider(DistributionTransportSecretProvider delegate, long ttlMillis,
+                                               long refreshAheadMillis, int maxSize, long loadTimeoutMillis,
+                                               Executor executor, LongSupplier clock) {
+        if (ttlMillis < 1 || refreshAheadMillis < 0 || refreshAheadMillis >= ttlMillis || maxSize < 1
+                || loadTimeoutMillis < 1) {
+            throw new IllegalArgumentException("invalid ttl " + ttlMillis + ", refresh ahead " + refreshAheadMillis
+                    + ", size " + maxSize + " or load timeout " + loadTimeoutMillis);
+        }
+        this.delegate = Objects.requireNonNull(delegate);
+        this.ttlMillis = ttlMillis;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.maxSize = maxSize;
+        this.loadTimeoutMillis = loadTimeoutMillis;
+        this.executor = Objects.requireNonNull(executor);
+        this.clock = clock;
+    }
+
+    @Nullable
+    @Override
+    public DistributionTransportSecret getSecret(URI uri) {
+        String key = key(uri);
+        long now = clock.getAsLong();
+        Entry loading = null;
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null || (entry.isExpired(now) && !entry.isLoaded())) {
+                loading = new Entry(now);
+                entries.put(key, loading);
+                entry = loading;
+            }
+        }
+        if (entry == loading) {
+            load(key, uri, loading);
+        } else if ((entry.isExpired(now) || (refreshAheadMillis > 0 && entry.isDueForRefresh(now)))
+                && entry.refreshing.compareAndSet(false, true)) {
+            refresh(key, uri, entry);
+        }
+        return entry.get(key);
+    }
+
+    /**
+     * Removes the cached secret for an URI.
+     * @param uri the uri
+     */
+    public void invalidate(@NotNull URI uri) {
+        synchronized (entries) {
+            entries.remove(key(uri));
+        }
+    }
+
+    /**
+     * Removes all the cached secrets.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void load(String key, URI uri, Entry entry) {
+        try {
+            DistributionTransportSecret secret = delegate.getSecret(uri);
+            entry.secret.complete(secret);
+            if (secret == null) {
+                remove(key, entry);
+            }
+        } catch (Throwable t) {
+            entry.secret.completeExceptionally(t);
+            remove(key, entry);
+            throw t;
+        }
+    }
+
+    private void refresh(String key, URI uri, Entry entry) {
+        try {
+            executor.execute(() -> {
+                DistributionTransportSecret secret = null;
+                try {
+                    secret = delegate.getSecret(uri);
+                } catch (RuntimeException e) {
+                    // handled as a missing secret
+                } finally {
+                    refreshed(key, entry, secret);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshed(key, entry, null);
+        }
+    }
+
+    private void refreshed(String key, Entry entry, DistributionTransportSecret secret) {
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            if (secret != null) {
+                Entry refreshed = new Entry(now);
+                refreshed.secret.complete(secret);
+                entries.replace(key, entry, refreshed);
+            } else if (entry.isExpired(now)) {
+                // stop serving the expired secret, the next caller loads it again and gets the failure
+                entries.remove(key, entry);
+            }
+            // otherwise keep serving the cached secret until it expires
+        }
+        entry.refreshing.set(false);
+    }
+
+    private void remove(String key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    private static String key(URI uri) {
+        String authority = uri.getRawAuthority();
+        return authority != null ? uri.getScheme() + "://" + authority : uri.toString();
+    }
+
+    private final class Entry {
+
+        private final CompletableFuture<DistributionTransportSecret> secret = new CompletableFuture<>();
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private final long loadedAt;
+
+        Entry(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - loadedAt >= ttlMillis;
+        }
+
+        boolean isDueForRefresh(long now) {
+            return now - loadedAt >= ttlMillis - refreshAheadMillis;
+        }
+
+        boolean isLoaded() {
+            return secret.isDone() && !secret.isCompletedExceptionally() && secret.getNow(null) != null;
+        }
+
+        DistributionTransportSecret get(String key) {
+            try {
+                return secret.get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for the secret of " + key, e);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("secret of " + key + " not loaded within " + loadTimeoutMillis
+                        + " ms", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.sling.distribution.transport;
 import java.util.Map;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.osgi.annotation.versioning.ConsumerType;
 
 /**
@@ -45,4 +46,25 @@ public interface DistributionTransportSecret {
 	@NotNull
     Map<String, String> asCredentialsMap();
 
+    /**
+     * Get the value of the HTTP {@code Authorization} header for this secret, encoded once so that transports can
+     * set it on each request without rebuilding it from the {@link #asCredentialsMap() credentials}.
+     *
+     * @return the header value, or {@code null} if the secret does not provide it, in which case transports build
+     * the header from the credentials
+     */
+    @Nullable
+    default String getAuthorizationHeader() {
+        return null;
+    }
+
+    /**
+     * Get the version of this secret, which changes whenever the secret changes, e.g. upon rotation. Transports
+     * caching values derived from the secret can use it to detect stale values.
+     *
+     * @return the version of the secret, {@code 0} if the secret is not versioned
+     */
+    default long getVersion() {
+        return 0;
+    }
 }
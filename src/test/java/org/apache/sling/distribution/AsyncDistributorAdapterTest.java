@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.sling.distribution.event.DistributionEventProperties;
+import org.apache.sling.distribution.event.DistributionEventTopics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+
+public class AsyncDistributorAdapterTest {
+
+    private static final DistributionRequest REQUEST = new SimpleDistributionRequest(DistributionRequestType.ADD, "/content");
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testSynchronousResponseCompletesBothStages() {
+        AsyncDistributorAdapter adapter = adapter(
+                (agent, resolver, request) -> response(DistributionRequestState.DISTRIBUTED, "pkg-1"));
+        DistributionCompletion completion = adapter.distributeAsync("publish", null, REQUEST);
+        assertThat(stateOf(completion.whenAccepted()), equalTo(DistributionRequestState.DISTRIBUTED));
+        assertThat(stateOf(completion.whenCompleted()), equalTo(DistributionRequestState.DISTRIBUTED));
+    }
+
+    @Test
+    public void testAcceptedResponseCompletesOnEvent() {
+        AsyncDistributorAdapter adapter = adapter(
+                (agent, resolver, request) -> response(DistributionRequestState.ACCEPTED, "pkg-1"));
+        DistributionCompletion completion = adapter.distributeAsync("publish", null, REQUEST);
+        assertThat(stateOf(completion.whenAccepted()), equalTo(DistributionRequestState.ACCEPTED));
+        assertFalse(completion.whenCompleted().toCompletableFuture().isDone());
+
+        adapter.handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_DROPPED, "pkg-1"));
+        assertThat(stateOf(completion.whenCompleted()), equalTo(DistributionRequestState.DROPPED));
+    }
+
+    @Test
+    public void testCancelledExpiredAndSupersededEvents() {
+        AsyncDistributorAdapter adapter = adapter(
+                (agent, resolver, request) -> response(DistributionRequestState.ACCEPTED, "pkg-3"));
+        DistributionCompletion cancelled = adapter.distributeAsync("publish", null, REQUEST);
+        adapter.handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_CANCELLED, "pkg-3"));
+        assertThat(stateOf(cancelled.whenCompleted()), equalTo(DistributionRequestState.CANCELLED));
+
+        DistributionCompletion expired = adapter.distributeAsync("publish", null, REQUEST);
+        adapter.handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_EXPIRED, "pkg-3"));
+        assertThat(stateOf(expired.whenCompleted()), equalTo(DistributionRequestState.EXPIRED));
+
+        DistributionCompletion superseded = adapter.distributeAsync("publish", null, REQUEST);
+        adapter.handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_SUPERSEDED, "pkg-3"));
+        assertThat(stateOf(superseded.whenCompleted()), equalTo(DistributionRequestState.SUPERSEDED));
+    }
+
+    @Test
+    public void testEventBeforeAcceptance() {
+        AtomicReference<AsyncDistributorAdapter> adapter = new AtomicReference<>();
+        adapter.set(adapter((agent, resolver, request) -> {
+            adapter.get().handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_DISTRIBUTED, "pkg-2"));
+            return response(DistributionRequestState.ACCEPTED, "pkg-2");
+        }));
+        DistributionCompletion completion = adapter.get().distributeAsync("publish", null, REQUEST);
+        assertThat(stateOf(completion.whenCompleted()), equalTo(DistributionRequestState.DISTRIBUTED));
+    }
+
+    @Test
+    public void testEarlyOutcomeKeptWhileSubmitting() {
+        AtomicReference<AsyncDistributorAdapter> adapter = new AtomicReference<>();
+        adapter.set(adapter((agent, resolver, request) -> {
+            adapter.get().handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_DISTRIBUTED, "pkg-2"));
+            for (int i = 0; i < 5000; i++) {
+                adapter.get().handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_DROPPED, "other-" + i));
+            }
+            return response(DistributionRequestState.ACCEPTED, "pkg-2");
+        }));
+        DistributionCompletion completion = adapter.get().distributeAsync("publish", null, REQUEST);
+        assertThat(stateOf(completion.whenCompleted()), equalTo(DistributionRequestState.DISTRIBUTED));
+    }
+
+    @Test
+    public void testTimeoutCancelledOnCompletion() {
+        ScheduledThreadPoolExecutor timeouts = new ScheduledThreadPoolExecutor(1);
+        timeouts.setRemoveOnCancelPolicy(true);
+        try {
+            AtomicReference<AsyncDistributorAdapter> adapter = new AtomicReference<>();
+            adapter.set(new AsyncDistributorAdapter((agent, resolver, request) -> {
+                if (request == REQUEST) {
+                    adapter.get().handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_DISTRIBUTED, "pkg-5"));
+                    return response(DistributionRequestState.ACCEPTED, "pkg-5");
+                }
+                return response(DistributionRequestState.ACCEPTED, "pkg-6");
+            }, Runnable::run, timeouts, 1, TimeUnit.MINUTES));
+            DistributionCompletion early = adapter.get().distributeAsync("publish", null, REQUEST);
+            assertThat(stateOf(early.whenCompleted()), equalTo(DistributionRequestState.DISTRIBUTED));
+            assertTrue(timeouts.getQueue().isEmpty());
+
+            DistributionCompletion late = adapter.get().distributeAsync("publish", null,
+                    new SimpleDistributionRequest(DistributionRequestType.ADD, "/other"));
+            assertThat(timeouts.getQueue().size(), equalTo(1));
+            adapter.get().handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_DISTRIBUTED, "pkg-6"));
+            assertThat(stateOf(late.whenCompleted()), equalTo(DistributionRequestState.DISTRIBUTED));
+            assertTrue(timeouts.getQueue().isEmpty());
+        } finally {
+            timeouts.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEventOutsideSubmissionIsIgnored() {
+        AsyncDistributorAdapter adapter = adapter(
+                (agent, resolver, request) -> response(DistributionRequestState.ACCEPTED, "pkg-2"));
+        adapter.handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_DISTRIBUTED, "pkg-2"));
+        DistributionCompletion completion = adapter.distributeAsync("publish", null, REQUEST);
+        assertFalse(completion.whenCompleted().toCompletableFuture().isDone());
+    }
+
+    @Test
+    public void testCompletionTimesOut() throws Exception {
+        AsyncDistributorAdapter adapter = new AsyncDistributorAdapter(
+                (agent, resolver, request) -> response(DistributionRequestState.ACCEPTED, "pkg-4"), Runnable::run,
+                scheduler, 50, TimeUnit.MILLISECONDS);
+        DistributionCompletion completion = adapter.distributeAsync("publish", null, REQUEST);
+        try {
+            completion.whenCompleted().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            fail("completion did not time out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        adapter.handleEvent(event(DistributionEventTopics.AGENT_PACKAGE_DISTRIBUTED, "pkg-4"));
+        assertTrue(completion.whenCompleted().toCompletableFuture().isCompletedExceptionally());
+    }
+
+    @Test
+    public void testFailureCompletesExceptionally() {
+        AsyncDistributorAdapter adapter = adapter(
+                (agent, resolver, request) -> { throw new IllegalStateException("no agent"); });
+        DistributionCompletion completion = adapter.distributeAsync("publish", null, REQUEST);
+        assertTrue(completion.whenAccepted().toCompletableFuture().isCompletedExceptionally());
+        assertTrue(completion.whenCompleted().toCompletableFuture().isCompletedExceptionally());
+    }
+
+    private AsyncDistributorAdapter adapter(Distributor distributor) {
+        return new AsyncDistributorAdapter(distributor, Runnable::run, scheduler, 1, TimeUnit.MINUTES);
+    }
+
+    private static DistributionRequestState stateOf(CompletionStage<DistributionResponse> stage) {
+        CompletableFuture<DistributionResponse> future = stage.toCompletableFuture();
+        assertTrue(future.isDone());
+        return future.join().getState();
+    }
+
+    private static Event event(String topic, String packageId) {
+        return new Event(topic, Collections.singletonMap(DistributionEventProperties.DISTRIBUTION_PACKAGE_ID, packageId));
+    }
+
+    private static DistributionResponse response(DistributionRequestState state, String id) {
+        return new DistributionResponse() {
+            @Override public boolean isSuccessful() {
+                return state != DistributionRequestState.DROPPED;
+            }
+
+            @NotNull @Override public DistributionRequestState getState() {
+                return state;
+            }
+
+            @Nullable @Override public String getMessage() {
+                return null;
+            }
+
+            @NotNull @Override public DistributionResponseInfo getDistributionInfo() {
+                return () -> id;
+            }
+        };
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class CompactPathSetTest {
+
+    @Test
+    public void testSortedAndDistinct() {
+        CompactPathSet set = CompactPathSet.of("/content/b", "/content/a", null, "/content/a", "/content");
+        assertThat(set.size(), equalTo(3));
+        assertThat(set.toArray(new String[0]), equalTo(new String[] {"/content", "/content/a", "/content/b"}));
+    }
+
+    @Test
+    public void testContains() {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            paths.add("/content/dam/brand/en/asset-" + i);
+        }
+        CompactPathSet set = CompactPathSet.of(paths);
+        assertThat(set.size(), equalTo(1000));
+        for (String path : paths) {
+            assertThat(path, set.contains(path), equalTo(true));
+        }
+        assertThat(set.contains("/content/dam/brand/en/asset-1000"), equalTo(false));
+        assertThat(set.contains("/content/dam/brand/en"), equalTo(false));
+        assertThat(set.contains("/a"), equalTo(false));
+        assertThat(set.contains("/z"), equalTo(false));
+        assertThat(set.contains(null), equalTo(false));
+        assertThat(new ArrayList<>(set), equalTo(new ArrayList<>(new TreeSet<>(paths))));
+    }
+
+    @Test
+    public void testContainsMatchesTreeSet() {
+        Random random = new Random(42);
+        String[] segments = {"a", "ab", "b", "a-b", "ba", "c"};
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder path = new StringBuilder();
+            int depth = 1 + random.nextInt(4);
+            for (int d = 0; d < depth; d++) {
+                path.append('/').append(segments[random.nextInt(segments.length)]);
+            }
+            candidates.add(path.toString());
+        }
+        TreeSet<String> expected = new TreeSet<>(candidates.subList(0, 1000));
+        CompactPathSet set = CompactPathSet.of(candidates.subList(0, 1000));
+        for (String candidate : candidates) {
+            assertThat(candidate, set.contains(candidate), equalTo(expected.contains(candidate)));
+            String shorter = candidate.substring(0, candidate.length() - 1);
+            assertThat(shorter, set.contains(shorter), equalTo(expected.contains(shorter)));
+            String longer = candidate + "b";
+            assertThat(longer, set.contains(longer), equalTo(expected.contains(longer)));
+        }
+    }
+
+    @Test
+    public void testLongPaths() {
+        char[] chars = new char[70000];
+        Arrays.fill(chars, 'a');
+        String longPath = "/" + new String(chars);
+        CompactPathSet set = CompactPathSet.of(longPath, longPath + "/b", "/c");
+        assertThat(set.contains(longPath + "/b"), equalTo(true));
+        assertThat(set.toArray(new String[0]), equalTo(new String[] {longPath, longPath + "/b", "/c"}));
+    }
+
+    @Test
+    public void testEmpty() {
+        CompactPathSet set = CompactPathSet.of();
+        assertThat(set.isEmpty(), equalTo(true));
+        assertThat(set.contains("/a"), equalTo(false));
+        assertThat(set.iterator().hasNext(), equalTo(false));
+    }
+
+    @Test
+    public void testCompactRequest() {
+        SimpleDistributionRequest request = SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                .compact()
+                .addPath("/content/b")
+                .addDeepPath("/content/a")
+                .addPath("/content/a", true, "+/content/a/x")
+                .build();
+        assertThat(request.getPaths(), equalTo(new String[] {"/content/a", "/content/b"}));
+        assertThat(request.isDeep("/content/a"), equalTo(true));
+        assertThat(request.isDeep("/content/b"), equalTo(false));
+        assertThat(request.getFilters("/content/a"), equalTo(new String[] {"+/content/a/x"}));
+        assertThat(request.getPathSpliterator().estimateSize(), equalTo(2L));
+    }
+}
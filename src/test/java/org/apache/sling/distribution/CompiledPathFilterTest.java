@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class CompiledPathFilterTest {
+
+    @Test
+    public void testNoFilters() {
+        assertThat(CompiledPathFilter.compile().matches("/content"), equalTo(true));
+        assertThat(CompiledPathFilter.compile((String[]) null), sameInstance(CompiledPathFilter.INCLUDE_ALL));
+    }
+
+    @Test
+    public void testLastMatchWins() {
+        CompiledPathFilter filter = CompiledPathFilter.compile("+/foo/.*", "-/foo/bar", "-/foo/b[a-z]z", "+/foo/baz");
+        assertThat(filter.matches("/foo/a"), equalTo(true));
+        assertThat(filter.matches("/foo/bar"), equalTo(false));
+        assertThat(filter.matches("/foo/bzz"), equalTo(false));
+        assertThat(filter.matches("/foo/baz"), equalTo(true));
+        assertThat(filter.matches("/other"), equalTo(false));
+    }
+
+    @Test
+    public void testDefaultFollowsFirstFilter() {
+        CompiledPathFilter filter = CompiledPathFilter.compile("-/foo");
+        assertThat(filter.matches("/foo"), equalTo(false));
+        assertThat(filter.matches("/bar"), equalTo(true));
+    }
+
+    @Test
+    public void testFusedRegularExpressions() {
+        CompiledPathFilter filter = CompiledPathFilter.compile("+/a/(x|y)/.*", "-/a/x/[0-9]+", "+/a/x/1(2)", "-/a/.*\\.tmp");
+        assertThat(filter.matches("/a/x/foo"), equalTo(true));
+        assertThat(filter.matches("/a/x/13"), equalTo(false));
+        assertThat(filter.matches("/a/x/12"), equalTo(true));
+        assertThat(filter.matches("/a/y/file.tmp"), equalTo(false));
+        assertThat(filter.matches("/a/z/foo"), equalTo(false));
+    }
+
+    @Test
+    public void testGroupReferences() {
+        CompiledPathFilter filter = CompiledPathFilter.compile("+/(a|b)/\\1", "-/a/.+/c");
+        assertThat(filter.matches("/a/a"), equalTo(true));
+        assertThat(filter.matches("/a/b"), equalTo(false));
+        assertThat(filter.matches("/a/x/c"), equalTo(false));
+    }
+
+    @Test
+    public void testCachedByRequest() {
+        SimpleDistributionRequest request = new SimpleDistributionRequest(DistributionRequestType.ADD,
+                new String[] {"/foo"}, Collections.singleton("/foo"),
+                Collections.singletonMap("/foo", new String[] {"+/foo/.*"}));
+        CompiledPathFilter filter = request.getCompiledFilter("/foo");
+        assertThat(request.getCompiledFilter("/foo"), sameInstance(filter));
+        assertThat(filter.matches("/foo/bar"), equalTo(true));
+        assertThat(request.getCompiledFilter("/bar"), sameInstance(CompiledPathFilter.INCLUDE_ALL));
+    }
+}
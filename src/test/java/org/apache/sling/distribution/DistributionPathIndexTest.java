@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class DistributionPathIndexTest {
+
+    private final DistributionPathIndex index = new SimpleDistributionRequest(DistributionRequestType.ADD,
+            new String[] {"/content/a", "/content/a/b/c", "/content/d", "/content/a-b"},
+            new HashSet<>(Arrays.asList("/content/a", "/content/a-b")),
+            Collections.singletonMap("/content/a", new String[] {"-/content/a/x"})).getPathIndex();
+
+    @Test
+    public void testRequestedPaths() {
+        assertThat(index.isCovered("/content/a"), equalTo(true));
+        assertThat(index.isCovered("/content/d"), equalTo(true));
+        assertThat(index.getRoot("/content/a/b/c"), equalTo("/content/a/b/c"));
+        assertThat(index.getRoot("/content/a/"), equalTo("/content/a"));
+    }
+
+    @Test
+    public void testDeepDescendants() {
+        assertThat(index.getRoot("/content/a/b"), equalTo("/content/a"));
+        assertThat(index.getRoot("/content/a/b/c/d"), equalTo("/content/a"));
+        assertThat(index.getRoot("/content/a-b/c"), equalTo("/content/a-b"));
+        assertThat(index.getFilters("/content/a/b"), equalTo(new String[] {"-/content/a/x"}));
+        assertThat(index.getFilters("/content/a/b/c").length, equalTo(0));
+    }
+
+    @Test
+    public void testNotCovered() {
+        assertThat(index.isCovered("/content"), equalTo(false));
+        assertThat(index.isCovered("/content/d/e"), equalTo(false));
+        assertThat(index.isCovered("/content/ab"), equalTo(false));
+        assertThat(index.getRoot("/libs"), nullValue());
+        assertThat(index.getFilters("/libs").length, equalTo(0));
+    }
+
+    @Test
+    public void testRepositoryRoot() {
+        DistributionPathIndex rootIndex = new SimpleDistributionRequest(DistributionRequestType.ADD, true, "/").getPathIndex();
+        assertThat(rootIndex.getRoot("/"), equalTo("/"));
+        assertThat(rootIndex.getRoot("/content/a"), equalTo("/"));
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DistributionRequestCoalescerTest {
+
+    private final DistributionRequestCoalescer coalescer = new DistributionRequestCoalescer();
+
+    @Test
+    public void testMergeSameType() {
+        List<DistributionRequestCoalescer.Group> groups = coalescer.coalesce(Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/a"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, true, "/content/b"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/a", "/content/c")));
+        assertThat(groups.size(), equalTo(1));
+        DistributionRequest merged = groups.get(0).getRequest();
+        assertThat(merged.getPaths(), equalTo(new String[] {"/content/a", "/content/b", "/content/c"}));
+        assertThat(merged.isDeep("/content/b"), equalTo(true));
+        assertThat(merged.isDeep("/content/a"), equalTo(false));
+        assertThat(groups.get(0).getIndexes(), equalTo(new int[] {0, 1, 2}));
+    }
+
+    @Test
+    public void testDifferentTypesAreNotMerged() {
+        List<DistributionRequestCoalescer.Group> groups = coalescer.coalesce(Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/a"),
+                new SimpleDistributionRequest(DistributionRequestType.DELETE, "/content/b"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/c")));
+        assertThat(groups.size(), equalTo(2));
+        assertThat(groups.get(0).getIndexes(), equalTo(new int[] {0, 2}));
+        assertThat(groups.get(1).getRequest().getRequestType(), equalTo(DistributionRequestType.DELETE));
+    }
+
+    @Test
+    public void testDifferentPrioritiesAreNotMerged() {
+        List<DistributionRequestCoalescer.Group> groups = coalescer.coalesce(Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/a"),
+                SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                        .priority(DistributionRequestPriority.INTERACTIVE).addPath("/content/b").build()));
+        assertThat(groups.size(), equalTo(2));
+        assertThat(groups.get(1).getRequest().getPriority(), equalTo(DistributionRequestPriority.INTERACTIVE));
+    }
+
+    @Test
+    public void testDifferentBaselinesAreNotMerged() {
+        List<DistributionRequestCoalescer.Group> groups = coalescer.coalesce(Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/a"),
+                SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                        .baseline(DistributionBaseline.revision("r1")).addPath("/content/b").build()));
+        assertThat(groups.size(), equalTo(2));
+        assertThat(groups.get(1).getRequest().getBaseline(), equalTo(DistributionBaseline.revision("r1")));
+    }
+
+    @Test
+    public void testDeadlinesAreNotExtended() {
+        List<DistributionRequestCoalescer.Group> groups = coalescer.coalesce(Arrays.asList(
+                SimpleDistributionRequest.builder(DistributionRequestType.ADD).deadline(2000L).addPath("/a").build(),
+                SimpleDistributionRequest.builder(DistributionRequestType.ADD).deadline(1000L).addPath("/b").build(),
+                SimpleDistributionRequest.builder(DistributionRequestType.ADD).deadline(2000L).addPath("/c").build(),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/d")));
+        assertThat(groups.size(), equalTo(3));
+        assertThat(groups.get(0).getRequest().getDeadline(), equalTo(2000L));
+        assertThat(groups.get(0).getIndexes(), equalTo(new int[] {0, 2}));
+        assertThat(groups.get(1).getRequest().getDeadline(), equalTo(1000L));
+        assertThat(groups.get(2).getRequest().getDeadline(), equalTo(-1L));
+    }
+
+    @Test
+    public void testConflictingPathsAreNotMerged() {
+        DistributionRequest filtered = new SimpleDistributionRequest(DistributionRequestType.ADD,
+                new String[] {"/content/a"}, new HashSet<>(Arrays.asList("/content/a")),
+                Collections.singletonMap("/content/a", new String[] {"-/content/a/b"}));
+        List<DistributionRequestCoalescer.Group> groups = coalescer.coalesce(Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, true, "/content/a"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/a"),
+                filtered));
+        assertThat(groups.size(), equalTo(3));
+    }
+
+    @Test
+    public void testOrderIsPreservedForOverlappingPaths() {
+        List<DistributionRequestCoalescer.Group> groups = coalescer.coalesce(Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/a"),
+                new SimpleDistributionRequest(DistributionRequestType.DELETE, "/a"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/a")));
+        assertThat(groups.size(), equalTo(3));
+        assertThat(groups.get(0).getIndexes(), equalTo(new int[] {0}));
+        assertThat(groups.get(1).getRequest().getRequestType(), equalTo(DistributionRequestType.DELETE));
+        assertThat(groups.get(2).getIndexes(), equalTo(new int[] {2}));
+    }
+
+    @Test
+    public void testOrderIsPreservedForNestedPaths() {
+        List<DistributionRequestCoalescer.Group> groups = coalescer.coalesce(Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/a/b"),
+                new SimpleDistributionRequest(DistributionRequestType.DELETE, true, "/a"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/a/b/c"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/x")));
+        assertThat(groups.size(), equalTo(3));
+        assertThat(groups.get(2).getIndexes(), equalTo(new int[] {2, 3}));
+    }
+
+    @Test
+    public void testNonOverlappingTypesAreMerged() {
+        List<DistributionRequestCoalescer.Group> groups = coalescer.coalesce(Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/a"),
+                new SimpleDistributionRequest(DistributionRequestType.DELETE, "/b"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/c")));
+        assertThat(groups.size(), equalTo(2));
+        assertThat(groups.get(0).getIndexes(), equalTo(new int[] {0, 2}));
+    }
+
+    @Test
+    public void testMaxPathsCountsNewPathsOnly() {
+        List<DistributionRequestCoalescer.Group> groups = new DistributionRequestCoalescer(2).coalesce(Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/a", "/b"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/a")));
+        assertThat(groups.size(), equalTo(1));
+    }
+
+    @Test
+    public void testMaxPaths() {
+        List<DistributionRequestCoalescer.Group> groups = new DistributionRequestCoalescer(2).coalesce(Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/a"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/b"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/c")));
+        assertThat(groups.size(), equalTo(2));
+        assertThat(groups.get(1).getIndexes(), equalTo(new int[] {2}));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class DistributionRequestCoverageTest {
+
+    @Test
+    public void testSamePaths() {
+        DistributionRequest older = new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/a", "/content/b");
+        DistributionRequest newer = new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/b", "/content/a");
+        assertThat(DistributionRequestCoverage.covers(newer, older), equalTo(true));
+        assertThat(DistributionRequestCoverage.covers(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/a"), older), equalTo(false));
+    }
+
+    @Test
+    public void testDifferentTypes() {
+        assertThat(DistributionRequestCoverage.covers(
+                new SimpleDistributionRequest(DistributionRequestType.DELETE, "/content/a"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/a")), equalTo(false));
+    }
+
+    @Test
+    public void testDeepAncestor() {
+        DistributionRequest newer = new SimpleDistributionRequest(DistributionRequestType.ADD, true, "/content");
+        assertThat(DistributionRequestCoverage.covers(newer,
+                new SimpleDistributionRequest(DistributionRequestType.ADD, true, "/content/a", "/content")), equalTo(true));
+        assertThat(DistributionRequestCoverage.covers(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, true, "/content")), equalTo(false));
+        assertThat(DistributionRequestCoverage.covers(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/a")), equalTo(false));
+    }
+
+    @Test
+    public void testFilters() {
+        DistributionRequest filtered = new SimpleDistributionRequest(DistributionRequestType.ADD,
+                new String[] {"/content"}, new HashSet<>(Arrays.asList("/content")),
+                Collections.singletonMap("/content", new String[] {"-/content/b"}));
+        DistributionRequest unfiltered = new SimpleDistributionRequest(DistributionRequestType.ADD, true, "/content");
+        assertThat(DistributionRequestCoverage.covers(unfiltered, filtered), equalTo(true));
+        assertThat(DistributionRequestCoverage.covers(filtered, filtered), equalTo(true));
+        assertThat(DistributionRequestCoverage.covers(filtered, unfiltered), equalTo(false));
+        assertThat(DistributionRequestCoverage.covers(filtered,
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/content/b")), equalTo(false));
+    }
+
+    @Test
+    public void testBaselines() {
+        DistributionRequest delta = SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                .baseline(DistributionBaseline.revision("r1")).addDeepPath("/content").build();
+        DistributionRequest full = new SimpleDistributionRequest(DistributionRequestType.ADD, true, "/content");
+        assertThat(DistributionRequestCoverage.covers(delta, full), equalTo(false));
+        assertThat(DistributionRequestCoverage.covers(full, delta), equalTo(false));
+    }
+
+    @Test
+    public void testPriorities() {
+        DistributionRequest bulk = SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                .priority(DistributionRequestPriority.BULK).addDeepPath("/content").build();
+        DistributionRequest interactive = SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                .priority(DistributionRequestPriority.INTERACTIVE).addDeepPath("/content").build();
+        DistributionRequest normal = new SimpleDistributionRequest(DistributionRequestType.ADD, true, "/content");
+        assertThat(DistributionRequestCoverage.covers(bulk, interactive), equalTo(false));
+        assertThat(DistributionRequestCoverage.covers(bulk, normal), equalTo(false));
+        assertThat(DistributionRequestCoverage.covers(interactive, bulk), equalTo(true));
+        assertThat(DistributionRequestCoverage.covers(normal, bulk), equalTo(true));
+    }
+
+    @Test
+    public void testDeadlines() {
+        DistributionRequest early = SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                .deadline(1000L).addDeepPath("/content").build();
+        DistributionRequest late = SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                .deadline(2000L).addDeepPath("/content").build();
+        DistributionRequest never = new SimpleDistributionRequest(DistributionRequestType.ADD, true, "/content");
+        assertThat(DistributionRequestCoverage.covers(early, late), equalTo(false));
+        assertThat(DistributionRequestCoverage.covers(early, never), equalTo(false));
+        assertThat(DistributionRequestCoverage.covers(late, early), equalTo(true));
+        assertThat(DistributionRequestCoverage.covers(never, late), equalTo(true));
+        assertThat(DistributionRequestCoverage.covers(late, late), equalTo(true));
+    }
+}
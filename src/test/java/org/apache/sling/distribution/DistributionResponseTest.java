@@ -18,9 +18,12 @@
  */
 package org.apache.sling.distribution;
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
@@ -38,6 +41,15 @@ public class DistributionResponseTest {
         assertEquals("", res.getDistributionInfo().getId());
     }
     
+    @Test
+    public void backPressureDefaults() {
+        DistributionResponse res = new TestDistributionResponse(DistributionRequestState.THROTTLED, "queue full");
+        assertEquals(-1, res.getRetryAfter(TimeUnit.MILLISECONDS));
+        assertEquals(-1, res.getQueueDepth());
+        assertFalse(res.getRequestHandle().cancel());
+        assertFalse(res.getRequestHandle().isCancelled());
+    }
+
     @Test
     public void nullDistributionResponse() {
         DistributionResponse res = new TestDistributionResponse(DistributionRequestState.DISTRIBUTED, "", null);
@@ -57,6 +69,59 @@ public class DistributionResponseTest {
         assertEquals("res1", res1.getDistributionInfo().getId());
     }
     
+    @Test
+    public void defaultMetrics() {
+        DistributionResponse res = new TestDistributionResponse(DistributionRequestState.DISTRIBUTED, "");
+        DistributionResponseMetrics metrics = res.getDistributionInfo().getMetrics();
+        assertEquals(-1, metrics.getDuration(DistributionPhase.TRANSPORT, TimeUnit.MILLISECONDS));
+        assertEquals(-1, metrics.getPackageSize());
+        assertEquals(-1, metrics.getNodeCount());
+    }
+
+    @Test
+    public void responseMetrics() {
+        final DistributionResponseMetrics metrics = SimpleDistributionResponseMetrics.builder()
+            .duration(DistributionPhase.PACKAGE_CREATION, 1500, TimeUnit.MICROSECONDS)
+            .packageSize(2048)
+            .nodeCount(12)
+            .build();
+        DistributionResponse res = new TestDistributionResponse(DistributionRequestState.ACCEPTED, "",
+            new DistributionResponseInfo() {
+                @NotNull @Override public String getId() {
+                    return "res1";
+                }
+
+                @NotNull @Override public DistributionResponseMetrics getMetrics() {
+                    return metrics;
+                }
+            });
+        DistributionResponseMetrics resMetrics = res.getDistributionInfo().getMetrics();
+        assertEquals(1, resMetrics.getDuration(DistributionPhase.PACKAGE_CREATION, TimeUnit.MILLISECONDS));
+        assertEquals(-1, resMetrics.getDuration(DistributionPhase.QUEUEING, TimeUnit.MILLISECONDS));
+        assertEquals(2048, resMetrics.getPackageSize());
+        assertEquals(12, resMetrics.getNodeCount());
+    }
+
+    @Test
+    public void unknownMetricsCanBeSet() {
+        DistributionResponseMetrics metrics = SimpleDistributionResponseMetrics.builder()
+            .packageSize(-1)
+            .nodeCount(0)
+            .build();
+        assertEquals(-1, metrics.getPackageSize());
+        assertEquals(0, metrics.getNodeCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativePackageSize() {
+        SimpleDistributionResponseMetrics.builder().packageSize(-2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeNodeCount() {
+        SimpleDistributionResponseMetrics.builder().nodeCount(-2);
+    }
+
     class TestDistributionResponse implements DistributionResponse {
         private final DistributionRequestState state;
 
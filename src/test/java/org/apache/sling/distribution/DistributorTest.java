@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+public class DistributorTest {
+
+    private final List<DistributionRequest> distributed = new ArrayList<>();
+
+    @Test
+    public void testDistributeBatch() {
+        Distributor distributor = distributor(DistributionRequestState.ACCEPTED);
+        List<DistributionResponse> responses = distributor.distributeBatch("publish", null, Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/a"),
+                new SimpleDistributionRequest(DistributionRequestType.DELETE, "/b"),
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/c")));
+        assertThat(distributed.size(), equalTo(2));
+        assertThat(responses.size(), equalTo(3));
+        assertThat(responses.get(0), equalTo(responses.get(2)));
+    }
+
+    @Test
+    public void testDistributeBatchStopsWhenThrottled() {
+        Distributor distributor = distributor(DistributionRequestState.THROTTLED);
+        List<DistributionResponse> responses = distributor.distributeBatch("publish", null, Arrays.asList(
+                new SimpleDistributionRequest(DistributionRequestType.ADD, "/a"),
+                new SimpleDistributionRequest(DistributionRequestType.DELETE, "/b")));
+        assertThat(distributed.size(), equalTo(1));
+        assertThat(responses.get(1).getState(), equalTo(DistributionRequestState.THROTTLED));
+        assertThat(responses.get(1).getRetryAfter(TimeUnit.SECONDS), equalTo(2L));
+        assertThat(responses.get(1).getQueueDepth(), equalTo(1000L));
+    }
+
+    @Test
+    public void testDistributeToAgents() {
+        Distributor distributor = distributor(DistributionRequestState.ACCEPTED);
+        DistributionRequest request = new SimpleDistributionRequest(DistributionRequestType.ADD, "/a");
+        Map<String, DistributionResponse> responses = distributor.distributeToAgents(
+                new LinkedHashSet<>(Arrays.asList("publish", "preview")), null, request);
+        assertThat(new ArrayList<>(responses.keySet()), equalTo(Arrays.asList("publish", "preview")));
+        assertThat(responses.get("preview").getState(), equalTo(DistributionRequestState.ACCEPTED));
+        assertThat(distributed, equalTo(Arrays.asList(request, request)));
+    }
+
+    private Distributor distributor(DistributionRequestState state) {
+        return (agentName, resourceResolver, request) -> {
+            distributed.add(request);
+            return new DistributionResponse() {
+                @Override public boolean isSuccessful() {
+                    return state == DistributionRequestState.ACCEPTED;
+                }
+
+                @NotNull @Override public DistributionRequestState getState() {
+                    return state;
+                }
+
+                @Nullable @Override public String getMessage() {
+                    return null;
+                }
+
+                @NotNull @Override public DistributionResponseInfo getDistributionInfo() {
+                    return DistributionResponseInfo.NONE;
+                }
+
+                @Override public long getRetryAfter(@NotNull TimeUnit unit) {
+                    return unit.convert(2000, TimeUnit.MILLISECONDS);
+                }
+
+                @Override public long getQueueDepth() {
+                    return 1000;
+                }
+            };
+        };
+    }
+}
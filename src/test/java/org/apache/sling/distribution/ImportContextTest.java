@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_DEEP_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_ENQUEUE_TIMESTAMP;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_ID;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_SIZE;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_TYPE;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+public class ImportContextTest {
+
+    @Test
+    public void testFromMap() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(DISTRIBUTION_PACKAGE_ID, "pkg-1");
+        props.put(DISTRIBUTION_TYPE, "ADD");
+        props.put(DISTRIBUTION_PATHS, new String[] {"/a", "/b"});
+        props.put(DISTRIBUTION_PACKAGE_SIZE, 42L);
+        ImportContext context = ImportContext.fromMap(props);
+        assertThat(context.getPackageId(), equalTo("pkg-1"));
+        assertThat(context.getRequestType(), equalTo(DistributionRequestType.ADD));
+        assertThat(context.getPaths(), equalTo(new String[] {"/a", "/b"}));
+        assertThat(context.getDeepPaths().length, equalTo(0));
+        assertThat(context.getPackageSize(), equalTo(42L));
+    }
+
+    @Test
+    public void testFromMapIsBackedByTheMap() {
+        Map<String, Object> props = new HashMap<>();
+        ImportContext context = ImportContext.fromMap(props);
+        props.put(DISTRIBUTION_PACKAGE_ID, "pkg-1");
+        assertThat(context.getPackageId(), equalTo("pkg-1"));
+        context.asMap().put(DISTRIBUTION_PACKAGE_SIZE, 42L);
+        assertThat(props.get(DISTRIBUTION_PACKAGE_SIZE), equalTo((Object) 42L));
+    }
+
+    @Test
+    public void testEmptyMap() {
+        ImportContext context = ImportContext.fromMap(new HashMap<String, Object>());
+        assertThat(context.getPackageId(), equalTo(""));
+        assertThat(context.getRequestType(), nullValue());
+        assertThat(context.getPackageSize(), equalTo(-1L));
+    }
+
+    @Test
+    public void testMapView() {
+        Map<String, Object> map = new TestContext().asMap();
+        assertThat(map.get(DISTRIBUTION_PACKAGE_ID), equalTo((Object) "pkg-2"));
+        assertThat(map.get(DISTRIBUTION_TYPE), equalTo((Object) "DELETE"));
+        assertThat((String[]) map.get(DISTRIBUTION_DEEP_PATHS), equalTo(new String[] {"/c"}));
+        assertThat(map.containsKey(DISTRIBUTION_PACKAGE_SIZE), equalTo(false));
+        assertThat(map.size(), equalTo(4));
+    }
+
+    @Test
+    public void testMapViewWithExtraProperties() throws Exception {
+        final Map<String, Object> extra = new HashMap<>();
+        extra.put(DISTRIBUTION_ENQUEUE_TIMESTAMP, 1000L);
+        extra.put("custom.key", "custom");
+        extra.put(DISTRIBUTION_PACKAGE_ID, "ignored");
+        ImportContext context = new TestContext() {
+            @NotNull @Override protected Map<String, Object> getExtraProperties() {
+                return extra;
+            }
+        };
+        AtomicReference<Map<String, Object>> received = new AtomicReference<>();
+        ImportPostProcessor processor = received::set;
+        processor.processContext(context);
+        Map<String, Object> map = received.get();
+        assertThat(map.get(DISTRIBUTION_ENQUEUE_TIMESTAMP), equalTo((Object) 1000L));
+        assertThat(map.get("custom.key"), equalTo((Object) "custom"));
+        assertThat(map.get(DISTRIBUTION_PACKAGE_ID), equalTo((Object) "pkg-2"));
+        assertThat(map.size(), equalTo(6));
+        assertThat(new HashMap<>(map).get(DISTRIBUTION_PACKAGE_ID), equalTo((Object) "pkg-2"));
+    }
+
+    @Test
+    public void testProcessorAdapter() throws Exception {
+        AtomicReference<Map<String, Object>> received = new AtomicReference<>();
+        ImportPostProcessor processor = received::set;
+        processor.processContext(new TestContext());
+        assertThat(received.get().get(DISTRIBUTION_PACKAGE_ID), equalTo((Object) "pkg-2"));
+    }
+
+    private static class TestContext extends AbstractImportContext {
+
+        @NotNull @Override public String getPackageId() {
+            return "pkg-2";
+        }
+
+        @Nullable @Override public DistributionRequestType getRequestType() {
+            return DistributionRequestType.DELETE;
+        }
+
+        @NotNull @Override public String[] getPaths() {
+            return new String[] {"/c"};
+        }
+
+        @NotNull @Override public String[] getDeepPaths() {
+            return new String[] {"/c"};
+        }
+
+        @Override public long getPackageSize() {
+            return -1;
+        }
+    }
+}
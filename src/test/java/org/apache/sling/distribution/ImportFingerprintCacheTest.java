@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_FINGERPRINT;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_ID;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PATHS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ImportFingerprintCacheTest {
+
+    @Test
+    public void testDuplicateImportIsRejected() throws Exception {
+        ImportFingerprintCache cache = new ImportFingerprintCache(10);
+        ImportContext context = ImportContext.fromMap(props("pkg-1", "sha-256:abc"));
+        assertThat(context.getFingerprint(), equalTo("sha-256:abc"));
+
+        cache.getPreProcessor().processContext(context);
+        cache.getPostProcessor().processContext(context);
+        try {
+            cache.getPreProcessor().processContext(ImportContext.fromMap(props("pkg-2", "sha-256:abc")));
+            fail("duplicate import not detected");
+        } catch (DuplicateImportException e) {
+            assertThat(e.getFingerprint(), equalTo("sha-256:abc"));
+        }
+    }
+
+    @Test
+    public void testPackagesWithoutFingerprintAreImported() throws Exception {
+        ImportFingerprintCache cache = new ImportFingerprintCache(10);
+        Map<String, Object> props = props("pkg-1", null);
+        cache.getPostProcessor().process(props);
+        cache.getPreProcessor().process(props);
+        assertThat(cache.size(), equalTo(0));
+    }
+
+    @Test
+    public void testEviction() {
+        ImportFingerprintCache cache = new ImportFingerprintCache(2);
+        cache.record("a", new String[] {"/a"});
+        cache.record("b", new String[] {"/b"});
+        assertThat(cache.contains("a"), equalTo(true));
+        cache.record("c", new String[] {"/c"});
+        assertThat(cache.size(), equalTo(2));
+        assertThat(cache.contains("b"), equalTo(false));
+        assertThat(cache.contains("a"), equalTo(true));
+        assertThat(cache.contains("c"), equalTo(true));
+    }
+
+    @Test
+    public void testPipelineRunsCheckFirst() throws Exception {
+        ImportFingerprintCache cache = new ImportFingerprintCache(10);
+        cache.record("sha-256:abc", new String[] {"/a"});
+        ImportPreProcessor failing = props -> {
+            throw new ImportPreProcessException("should not run");
+        };
+        ImportProcessorPipeline pipeline = new ImportProcessorPipeline(
+                Arrays.asList(failing, cache.getPreProcessor()), Collections.<ImportPostProcessor>emptyList(), Runnable::run);
+        assertThat(pipeline.preProcess(props("pkg-1", "sha-256:abc", "/a")), equalTo(false));
+    }
+
+    @Test
+    public void testDuplicateIsNotRetried() throws Exception {
+        ImportFingerprintCache cache = new ImportFingerprintCache(10);
+        ImportProcessorPipeline pipeline = new ImportProcessorPipeline(
+                Collections.singletonList(cache.getPreProcessor()),
+                Collections.singletonList(cache.getPostProcessor()), Runnable::run);
+        Map<String, Object> props = props("pkg-1", "sha-256:abc", "/a");
+        assertThat(importWithRetries(pipeline, props), equalTo(1));
+        assertThat(importWithRetries(pipeline, props), equalTo(1));
+        assertThat(cache.size(), equalTo(1));
+    }
+
+    @Test
+    public void testChangedPathsAreImportedAgain() throws Exception {
+        ImportFingerprintCache cache = new ImportFingerprintCache(10);
+        ImportProcessorPipeline pipeline = new ImportProcessorPipeline(
+                Collections.singletonList(cache.getPreProcessor()),
+                Collections.singletonList(cache.getPostProcessor()), Runnable::run);
+        Map<String, Object> first = props("pkg-1", "fp1", "/a");
+        Map<String, Object> modify = props("pkg-2", "fp2", "/a");
+
+        assertThat(pipeline.preProcess(first), equalTo(true));
+        pipeline.postProcess(first);
+        assertThat(pipeline.preProcess(modify), equalTo(true));
+        pipeline.postProcess(modify);
+        assertThat(cache.contains("fp1"), equalTo(false));
+        assertThat(pipeline.preProcess(first), equalTo(true));
+    }
+
+    @Test
+    public void testOverlappingPathsDropFingerprints() throws Exception {
+        ImportFingerprintCache cache = new ImportFingerprintCache(10);
+        cache.record("parent", new String[] {"/content/site"});
+        cache.record("child", new String[] {"/content/site/page"});
+        cache.record("sibling", new String[] {"/content/site-b"});
+        cache.record("other", new String[] {"/content/other"});
+
+        cache.getPostProcessor().process(props("pkg-1", null, "/content/site/page/child"));
+        assertThat(cache.contains("parent"), equalTo(false));
+        assertThat(cache.contains("child"), equalTo(false));
+        assertThat(cache.contains("sibling"), equalTo(true));
+
+        cache.getPostProcessor().process(props("pkg-2", "root", "/content"));
+        assertThat(cache.contains("sibling"), equalTo(false));
+        assertThat(cache.contains("other"), equalTo(false));
+        assertThat(cache.contains("root"), equalTo(true));
+        assertThat(cache.size(), equalTo(1));
+    }
+
+    @Test
+    public void testAbstractContextFingerprint() {
+        ImportContext context = new AbstractImportContext() {
+            public String getPackageId() { return "pkg-1"; }
+            public DistributionRequestType getRequestType() { return DistributionRequestType.ADD; }
+            public String[] getPaths() { return new String[0]; }
+            public String[] getDeepPaths() { return new String[0]; }
+            public long getPackageSize() { return -1; }
+            @Override public String getFingerprint() { return "sha-256:abc"; }
+        };
+        assertThat(context.asMap().get(DISTRIBUTION_PACKAGE_FINGERPRINT), equalTo((Object) "sha-256:abc"));
+    }
+
+    /**
+     * Imports like an importer retrying the imports failing in the pre-processors, up to three attempts.
+     */
+    private static int importWithRetries(ImportProcessorPipeline pipeline, Map<String, Object> props) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (pipeline.preProcess(props)) {
+                    pipeline.postProcess(props);
+                }
+                return attempt;
+            } catch (ImportPreProcessException e) {
+                if (attempt == 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static Map<String, Object> props(String packageId, String fingerprint, String... paths) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(DISTRIBUTION_PACKAGE_ID, packageId);
+        props.put(DISTRIBUTION_PATHS, paths);
+        if (fingerprint != null) {
+            props.put(DISTRIBUTION_PACKAGE_FINGERPRINT, fingerprint);
+        }
+        return props;
+    }
+}
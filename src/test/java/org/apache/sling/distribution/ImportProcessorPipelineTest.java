@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Test;
+
+public class ImportProcessorPipelineTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+
+    private final Map<String, Object> props = Collections.emptyMap();
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOrderByRankingAndDependencies() throws Exception {
+        ImportProcessorPipeline pipeline = new ImportProcessorPipeline(Arrays.asList(
+                new Pre("a", 0), new Pre("b", 10, "c"), new Pre("c", 5), new Pre("d", 0)),
+                Collections.<ImportPostProcessor>emptyList(), executor);
+        pipeline.preProcess(props);
+        assertThat(calls, equalTo(Arrays.asList("c", "b", "a", "d")));
+    }
+
+    @Test
+    public void testPreProcessShortCircuits() {
+        ImportProcessorPipeline pipeline = new ImportProcessorPipeline(Arrays.asList(
+                new Pre("a", 1), new Pre("fail", 0), new Pre("b", -1)),
+                Collections.<ImportPostProcessor>emptyList(), executor);
+        try {
+            pipeline.preProcess(props);
+            fail("expected failure");
+        } catch (ImportPreProcessException e) {
+            assertThat(calls, equalTo(Arrays.asList("a", "fail")));
+        }
+    }
+
+    @Test
+    public void testIndependentPostProcessorsRunConcurrently() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        ImportProcessorPipeline pipeline = new ImportProcessorPipeline(Collections.<ImportPreProcessor>emptyList(),
+                Arrays.asList(new Post("p1", true, latch), new Post("p2", true, latch), new Post("last", false, null, "p1", "p2")),
+                executor);
+        pipeline.postProcess(props);
+        assertThat(calls.size(), equalTo(3));
+        assertThat(calls.get(2), equalTo("last"));
+    }
+
+    @Test
+    public void testPostProcessFailureStopsFollowingStages() {
+        ImportProcessorPipeline pipeline = new ImportProcessorPipeline(Collections.<ImportPreProcessor>emptyList(),
+                Arrays.asList(new Post("fail", true, null), new Post("p2", true, null), new Post("last", false, null)),
+                executor);
+        try {
+            pipeline.postProcess(props);
+            fail("expected failure");
+        } catch (ImportPostProcessException e) {
+            assertTrue(calls.contains("p2"));
+            assertTrue(!calls.contains("last"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCyclicDependencies() {
+        new ImportProcessorPipeline(Arrays.asList(new Pre("a", 0, "b"), new Pre("b", 0, "a")),
+                Collections.<ImportPostProcessor>emptyList(), executor);
+    }
+
+    private abstract class Named implements ImportProcessorInfo {
+
+        private final String name;
+
+        private final int ranking;
+
+        private final Set<String> dependencies;
+
+        Named(String name, int ranking, String... dependencies) {
+            this.name = name;
+            this.ranking = ranking;
+            this.dependencies = new HashSet<>(Arrays.asList(dependencies));
+        }
+
+        @NotNull @Override public String getName() {
+            return name;
+        }
+
+        @Override public int getRanking() {
+            return ranking;
+        }
+
+        @NotNull @Override public Set<String> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    private class Pre extends Named implements ImportPreProcessor {
+
+        Pre(String name, int ranking, String... dependencies) {
+            super(name, ranking, dependencies);
+        }
+
+        @Override public void process(Map<String, Object> props) throws ImportPreProcessException {
+            calls.add(getName());
+            if (getName().equals("fail")) {
+                throw new ImportPreProcessException("rejected");
+            }
+        }
+    }
+
+    private class Post extends Named implements ImportPostProcessor {
+
+        private final boolean independent;
+
+        private final CountDownLatch latch;
+
+        Post(String name, boolean independent, CountDownLatch latch, String... dependencies) {
+            super(name, 0, dependencies);
+            this.independent = independent;
+            this.latch = latch;
+        }
+
+        @Override public boolean isIndependent() {
+            return independent;
+        }
+
+        @Override public void process(Map<String, Object> props) throws ImportPostProcessException {
+            if (latch != null) {
+                // both independent processors must be running at the same time to pass the latch
+                latch.countDown();
+                try {
+                    if (!latch.await(5, TimeUnit.SECONDS)) {
+                        throw new ImportPostProcessException("not run concurrently");
+                    }
+                } catch (InterruptedException e) {
+                    throw new ImportPostProcessException(e);
+                }
+            }
+            calls.add(getName());
+            if (getName().equals("fail")) {
+                throw new ImportPostProcessException("failed");
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_BATCH_PACKAGE_IDS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_DEEP_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_ENQUEUE_TIMESTAMP;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PACKAGE_ID;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_PATHS;
+import static org.apache.sling.distribution.event.DistributionEventProperties.DISTRIBUTION_TYPE;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class InvalidationCoalescerTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    private final List<List<Map<String, Object>>> batches = new ArrayList<>();
+
+    private final InvalidationProcessor processor = new InvalidationProcessor() {
+        @Override
+        public void process(Map<String, Object> props) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void processBatch(List<Map<String, Object>> batch) {
+            batches.add(batch);
+        }
+    };
+
+    @Test
+    public void testMergesWithinWindow() throws Exception {
+        InvalidationCoalescer coalescer = coalescer(100, 1000);
+        coalescer.add(props(new String[] {"/content/a/b", "/content/x"}, null));
+        coalescer.add(props(new String[] {"/content/a"}, new String[] {"/content/a"}));
+        coalescer.add(props(new String[] {"/content/a/c", "/content/x"}, null));
+        assertThat(batches.size(), equalTo(0));
+
+        now.addAndGet(100);
+        coalescer.flushIfDue();
+        assertThat(batches.size(), equalTo(1));
+        Map<String, Object> batch = batches.get(0).get(0);
+        assertThat((String[]) batch.get(DISTRIBUTION_PATHS), equalTo(new String[] {"/content/a", "/content/x"}));
+        assertThat((String[]) batch.get(DISTRIBUTION_DEEP_PATHS), equalTo(new String[] {"/content/a"}));
+        assertThat(batch.get(DISTRIBUTION_TYPE), equalTo((Object) "INVALIDATE"));
+
+        coalescer.flushIfDue();
+        assertThat(batches.size(), equalTo(1));
+    }
+
+    @Test
+    public void testFlushOnPathLimit() throws Exception {
+        InvalidationCoalescer coalescer = coalescer(10000, 2);
+        coalescer.add(props(new String[] {"/a"}, null));
+        assertThat(batches.size(), equalTo(0));
+        coalescer.add(props(new String[] {"/b"}, null));
+        assertThat(batches.size(), equalTo(1));
+        coalescer.flush();
+        assertThat(batches.size(), equalTo(1));
+    }
+
+    @Test
+    public void testFlushOnTypeChange() throws Exception {
+        InvalidationCoalescer coalescer = coalescer(10000, 1000);
+        coalescer.add(props(new String[] {"/a"}, null));
+        Map<String, Object> delete = props(new String[] {"/b"}, null);
+        delete.put(DISTRIBUTION_TYPE, "DELETE");
+        coalescer.add(delete);
+        assertThat(batches.size(), equalTo(1));
+        assertThat(batches.get(0).get(0).get(DISTRIBUTION_TYPE), equalTo((Object) "INVALIDATE"));
+        assertThat((String[]) batches.get(0).get(0).get(DISTRIBUTION_PATHS), equalTo(new String[] {"/a"}));
+
+        coalescer.flush();
+        assertThat(batches.size(), equalTo(2));
+        assertThat(batches.get(1).get(0).get(DISTRIBUTION_TYPE), equalTo((Object) "DELETE"));
+        assertThat((String[]) batches.get(1).get(0).get(DISTRIBUTION_PATHS), equalTo(new String[] {"/b"}));
+    }
+
+    @Test
+    public void testMergesImporterProperties() throws Exception {
+        InvalidationCoalescer coalescer = coalescer(10000, 1000);
+        coalescer.add(importerProps("pkg-1", 2000L, "/a"));
+        coalescer.add(importerProps("pkg-2", 1500L, "/b"));
+        coalescer.add(importerProps("pkg-1", 2500L, "/a/c"));
+        coalescer.flush();
+        assertThat(batches.size(), equalTo(1));
+        Map<String, Object> batch = batches.get(0).get(0);
+        assertThat((String[]) batch.get(DISTRIBUTION_PATHS), equalTo(new String[] {"/a", "/a/c", "/b"}));
+        assertThat((String[]) batch.get(DISTRIBUTION_BATCH_PACKAGE_IDS), equalTo(new String[] {"pkg-1", "pkg-2"}));
+        assertThat(batch.get(DISTRIBUTION_ENQUEUE_TIMESTAMP), equalTo((Object) 1500L));
+        assertThat(batch.containsKey(DISTRIBUTION_PACKAGE_ID), equalTo(false));
+    }
+
+    @Test
+    public void testOtherPropertiesAreNotMerged() throws Exception {
+        InvalidationCoalescer coalescer = coalescer(10000, 1000);
+        coalescer.add(importerProps("pkg-1", 2000L, "/a"));
+        Map<String, Object> custom = importerProps("pkg-2", 2000L, "/b");
+        custom.put("custom.key", "value");
+        coalescer.add(custom);
+        assertThat(batches.size(), equalTo(2));
+        assertThat((String[]) batches.get(0).get(0).get(DISTRIBUTION_PATHS), equalTo(new String[] {"/a"}));
+        assertThat(batches.get(1).get(0), equalTo(custom));
+
+        coalescer.add(props(new String[] {"/c"}, null));
+        coalescer.flush();
+        assertThat(batches.size(), equalTo(3));
+        assertThat((String[]) batches.get(2).get(0).get(DISTRIBUTION_PATHS), equalTo(new String[] {"/c"}));
+    }
+
+    @Test
+    public void testIgnorableProperties() throws Exception {
+        InvalidationCoalescer coalescer = new InvalidationCoalescer(processor, 10000, 1000,
+                Collections.singleton("custom.key"), now::get);
+        Map<String, Object> custom = importerProps("pkg-1", 2000L, "/a");
+        custom.put("custom.key", "value");
+        coalescer.add(custom);
+        coalescer.add(importerProps("pkg-2", 2000L, "/b"));
+        coalescer.flush();
+        assertThat(batches.size(), equalTo(1));
+        assertThat(batches.get(0).get(0).containsKey("custom.key"), equalTo(false));
+        assertThat((String[]) batches.get(0).get(0).get(DISTRIBUTION_PATHS), equalTo(new String[] {"/a", "/b"}));
+    }
+
+    @Test
+    public void testBatchesAreDeliveredInOrder() throws Exception {
+        CountDownLatch processing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> delivered = Collections.synchronizedList(new ArrayList<String>());
+        InvalidationProcessor blocking = new InvalidationProcessor() {
+            @Override
+            public void process(Map<String, Object> props) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void processBatch(List<Map<String, Object>> batch) {
+                String path = ((String[]) batch.get(0).get(DISTRIBUTION_PATHS))[0];
+                if (path.equals("/a")) {
+                    processing.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                delivered.add(path);
+            }
+        };
+        InvalidationCoalescer coalescer = new InvalidationCoalescer(blocking, 10000, 1,
+                Collections.<String>emptySet(), now::get);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = pool.submit(() -> {
+                coalescer.add(props(new String[] {"/a"}, null));
+                return null;
+            });
+            assertThat(processing.await(5, TimeUnit.SECONDS), equalTo(true));
+            Future<?> second = pool.submit(() -> {
+                coalescer.add(props(new String[] {"/b"}, null));
+                return null;
+            });
+            Thread.sleep(50);
+            assertThat(delivered.isEmpty(), equalTo(true));
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            assertThat(delivered, equalTo(Arrays.asList("/a", "/b")));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDefaultBatchProcessing() throws Exception {
+        List<Map<String, Object>> processed = new ArrayList<>();
+        InvalidationProcessor single = processed::add;
+        List<Map<String, Object>> batch = new ArrayList<>();
+        batch.add(props(new String[] {"/a"}, null));
+        batch.add(props(new String[] {"/b"}, null));
+        single.processBatch(batch);
+        assertThat(processed, equalTo(batch));
+    }
+
+    private InvalidationCoalescer coalescer(long windowMillis, int maxPaths) {
+        return new InvalidationCoalescer(processor, windowMillis, maxPaths, Collections.<String>emptySet(), now::get);
+    }
+
+    private static Map<String, Object> importerProps(String packageId, long enqueueTimestamp, String path) {
+        Map<String, Object> props = props(new String[] {path}, null);
+        props.put(DISTRIBUTION_PACKAGE_ID, packageId);
+        props.put(DISTRIBUTION_ENQUEUE_TIMESTAMP, enqueueTimestamp);
+        return props;
+    }
+
+    private static Map<String, Object> props(String[] paths, String[] deepPaths) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(DISTRIBUTION_TYPE, "INVALIDATE");
+        props.put(DISTRIBUTION_PATHS, paths);
+        if (deepPaths != null) {
+            props.put(DISTRIBUTION_DEEP_PATHS, deepPaths);
+        }
+        return props;
+    }
+}
@@ -22,7 +22,10 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Test;
@@ -74,4 +77,177 @@ public class SimpleDistributionRequestTest {
         assertThat(req.isDeep("test"), equalTo(true));
         assertThat(req.isDeep("test2"), equalTo(true));
     }
+
+    @Test
+    public void testBuilder() {
+        SimpleDistributionRequest req = SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                .addPath("/a")
+                .addDeepPath("/b")
+                .addPath(" ")
+                .addPath("/c", true, "+/c/.*", "-/c/d")
+                .build();
+        assertThat(req.getPaths(), equalTo(new String[] {"/a", "/b", "/c"}));
+        assertThat(req.isDeep("/a"), equalTo(false));
+        assertThat(req.isDeep("/b"), equalTo(true));
+        assertThat(req.isDeep("/c"), equalTo(true));
+        assertThat(req.getFilters("/a").length, equalTo(0));
+        assertThat(req.getFilters("/c"), equalTo(new String[] {"+/c/.*", "-/c/d"}));
+    }
+
+    @Test
+    public void testBuilderReuse() {
+        String[] filters = {"+/b/.*"};
+        SimpleDistributionRequest.Builder builder = SimpleDistributionRequest.builder(DistributionRequestType.ADD);
+        for (int i = 0; i < 7; i++) {
+            builder.addPath("/a" + i);
+        }
+        builder.addPath("/b", true, filters);
+        SimpleDistributionRequest first = builder.build();
+        filters[0] = "-/b/.*";
+        builder.addPath("/c", true, "-/c/d");
+        builder.addPath("/b", false, "-/b/e");
+        SimpleDistributionRequest second = builder.build();
+
+        assertThat(first.getPaths().length, equalTo(8));
+        assertThat(first.isDeep("/c"), equalTo(false));
+        assertThat(first.getFilters("/b"), equalTo(new String[] {"+/b/.*"}));
+        assertThat(first.getFilters("/c").length, equalTo(0));
+        assertThat(second.getPaths().length, equalTo(10));
+        assertThat(second.isDeep("/c"), equalTo(true));
+        assertThat(second.getFilters("/b"), equalTo(new String[] {"-/b/e"}));
+    }
+
+    @Test
+    public void testBuilderGrowsPaths() {
+        SimpleDistributionRequest.Builder builder = SimpleDistributionRequest.builder(DistributionRequestType.DELETE);
+        for (int i = 0; i < 20; i++) {
+            builder.addPath("/p" + i);
+        }
+        SimpleDistributionRequest req = builder.build();
+        assertThat(req.getPaths().length, equalTo(20));
+        assertThat(req.getPaths()[19], equalTo("/p19"));
+        assertThat(req.getRequestType(), equalTo(DistributionRequestType.DELETE));
+    }
+
+    @Test
+    public void testNullFilters() {
+        SimpleDistributionRequest req = new SimpleDistributionRequest(DistributionRequestType.ADD, new String[]{"test"}, null, null);
+        assertThat(req.isDeep("test"), equalTo(false));
+        assertThat(req.getFilters("test").length, equalTo(0));
+    }
+
+    @Test
+    public void testNormaliseSubsumedPaths() {
+        SimpleDistributionRequest req = new SimpleDistributionRequest(DistributionRequestType.ADD,
+                new String[] {"/content/a/b", "/content/a-b", "/content/a", "/content/a/b/c", "/content/a", "/content/x"},
+                new HashSet<>(Arrays.asList("/content/a", "/content/a/b")));
+        SimpleDistributionRequest normalised = SimpleDistributionRequest.normalise(req);
+        assertThat(normalised.getPaths(), equalTo(new String[] {"/content/a", "/content/a-b", "/content/x"}));
+        assertThat(normalised.isDeep("/content/a"), equalTo(true));
+        assertThat(normalised.isDeep("/content/a-b"), equalTo(false));
+    }
+
+    @Test
+    public void testNormaliseKeepsFilteredPaths() {
+        Map<String, String[]> filters = new HashMap<>();
+        filters.put("/a", new String[] {"-/a/b/.*"});
+        filters.put("/c/d", new String[] {"+/c/d/.*"});
+        SimpleDistributionRequest req = new SimpleDistributionRequest(DistributionRequestType.ADD,
+                new String[] {"/a", "/a/b", "/c", "/c/d", "/c/d/e"}, new HashSet<>(Arrays.asList("/a", "/c", "/c/d")), filters);
+        SimpleDistributionRequest normalised = SimpleDistributionRequest.normalise(req);
+        assertThat(normalised.getPaths(), equalTo(new String[] {"/a", "/a/b", "/c", "/c/d"}));
+        assertThat(normalised.getFilters("/a"), equalTo(new String[] {"-/a/b/.*"}));
+        assertThat(normalised.getFilters("/c/d"), equalTo(new String[] {"+/c/d/.*"}));
+        assertThat(normalised.isDeep("/c/d"), equalTo(true));
+    }
+
+    @Test
+    public void testNormaliseRepositoryRoot() {
+        SimpleDistributionRequest req = new SimpleDistributionRequest(DistributionRequestType.ADD,
+                new String[] {"/content", "/"}, new HashSet<>(Arrays.asList("/")));
+        assertThat(SimpleDistributionRequest.normalise(req).getPaths(), equalTo(new String[] {"/"}));
+    }
+
+    @Test
+    public void testPriority() {
+        assertThat(new SimpleDistributionRequest(DistributionRequestType.ADD, "/a").getPriority(),
+                equalTo(DistributionRequestPriority.NORMAL));
+        SimpleDistributionRequest req = SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                .priority(DistributionRequestPriority.INTERACTIVE)
+                .addPath("/a")
+                .build();
+        assertThat(req.getPriority(), equalTo(DistributionRequestPriority.INTERACTIVE));
+        assertThat(SimpleDistributionRequest.normalise(req).getPriority(), equalTo(DistributionRequestPriority.INTERACTIVE));
+        assertThat(DistributionRequestPriority.fromName("bulk"), equalTo(DistributionRequestPriority.BULK));
+    }
+
+    @Test
+    public void testBaseline() {
+        assertThat(new SimpleDistributionRequest(DistributionRequestType.ADD, "/a").getBaseline(), equalTo(null));
+        SimpleDistributionRequest req = SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                .baseline(DistributionBaseline.revision("r42"))
+                .addDeepPath("/content")
+                .build();
+        assertThat(req.getBaseline(), equalTo(DistributionBaseline.revision("r42")));
+        assertThat(SimpleDistributionRequest.normalise(req).getBaseline(), equalTo(DistributionBaseline.revision("r42")));
+    }
+
+    @Test
+    public void testBaselineStringForm() {
+        DistributionBaseline baseline = DistributionBaseline.timestamp(1000L);
+        assertThat(baseline.toString(), equalTo("timestamp:1000"));
+        assertThat(DistributionBaseline.parse(baseline.toString()), equalTo(baseline));
+        assertThat(DistributionBaseline.parse("manifest:a:b").getValue(), equalTo("a:b"));
+        assertThat(DistributionBaseline.parse("timestamp:abc"), equalTo(null));
+        assertThat(DistributionBaseline.parse("unknown:1"), equalTo(null));
+        assertThat(DistributionBaseline.parse("r42"), equalTo(null));
+    }
+
+    @Test
+    public void testPriorityFromNameInTurkishLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertThat(DistributionRequestPriority.fromName("interactive"),
+                    equalTo(DistributionRequestPriority.INTERACTIVE));
+            assertThat(DistributionRequestPriority.fromName("bulk"), equalTo(DistributionRequestPriority.BULK));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void testBaselineStringFormInTurkishLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            DistributionBaseline baseline = DistributionBaseline.revision("r42");
+            assertThat(baseline.toString(), equalTo("revision:r42"));
+            assertThat(DistributionBaseline.parse("revision:r42"), equalTo(baseline));
+            assertThat(DistributionBaseline.parse("REVISION:r42"), equalTo(baseline));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void testDeadline() {
+        assertThat(new SimpleDistributionRequest(DistributionRequestType.ADD, "/a").getDeadline(), equalTo(-1L));
+        SimpleDistributionRequest req = SimpleDistributionRequest.builder(DistributionRequestType.ADD)
+                .deadline(1000L)
+                .addPath("/a")
+                .build();
+        assertThat(req.getDeadline(), equalTo(1000L));
+        assertThat(SimpleDistributionRequest.normalise(req).getDeadline(), equalTo(1000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDeadline() {
+        SimpleDistributionRequest.builder(DistributionRequestType.ADD).deadline(-2L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroDeadline() {
+        SimpleDistributionRequest.builder(DistributionRequestType.ADD).deadline(0L);
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+
+import org.junit.Test;
+
+public class StreamingDistributionRequestTest {
+
+    private final List<String> source = Arrays.asList("/a", "", "/b", null, " \t", "/c");
+
+    @Test
+    public void testPaths() {
+        StreamingDistributionRequest req = new StreamingDistributionRequest(DistributionRequestType.ADD, true,
+                source::iterator, -1);
+        assertThat(req.getPaths(), equalTo(new String[] {"/a", "/b", "/c"}));
+        assertThat(req.isDeep("/b"), equalTo(true));
+        assertThat(req.getFilters("/b").length, equalTo(0));
+    }
+
+    @Test
+    public void testPathsWithOversizedHint() {
+        StreamingDistributionRequest req = new StreamingDistributionRequest(DistributionRequestType.ADD, true,
+                source::iterator, Integer.MAX_VALUE - 1);
+        assertThat(req.getPaths(), equalTo(new String[] {"/a", "/b", "/c"}));
+    }
+
+    @Test
+    public void testSpliterator() {
+        StreamingDistributionRequest req = new StreamingDistributionRequest(DistributionRequestType.DELETE, false,
+                source::iterator, 5);
+        Spliterator<String> spliterator = req.getPathSpliterator();
+        assertThat(spliterator.estimateSize(), equalTo(5L));
+        assertThat(spliterator.hasCharacteristics(Spliterator.SIZED), equalTo(false));
+        assertThat(spliterator.hasCharacteristics(Spliterator.SUBSIZED), equalTo(false));
+        List<String> paths = new ArrayList<>();
+        spliterator.forEachRemaining(paths::add);
+        assertThat(paths, equalTo(Arrays.asList("/a", "/b", "/c")));
+    }
+
+    @Test
+    public void testDefaultSpliterator() {
+        DistributionRequest req = new SimpleDistributionRequest(DistributionRequestType.ADD, "/a", "/b");
+        List<String> paths = new ArrayList<>();
+        req.getPathSpliterator().forEachRemaining(paths::add);
+        assertThat(paths, equalTo(Arrays.asList("/a", "/b")));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.distribution.event.DistributionEvent;
+import org.apache.sling.distribution.event.DistributionEventProperties;
+import org.apache.sling.distribution.event.DistributionEventTopics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.osgi.service.event.Event;
+
+/**
+ * Benchmarks the conversion of {@link DistributionEvent}s from and to OSGi events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DistributionEventBenchmark {
+
+    private DistributionEvent event;
+
+    private Event osgiEvent;
+
+    @Setup
+    public void setup() {
+        event = new DistributionEvent("pkg-1", "publish", "agent", "ADD",
+                new String[] {"/content/site/en", "/content/site/fr"}, new String[] {"/content/site/en"});
+        osgiEvent = event.toEvent(DistributionEventTopics.AGENT_PACKAGE_CREATED);
+    }
+
+    @Benchmark
+    public Event toEvent() {
+        return event.toEvent(DistributionEventTopics.AGENT_PACKAGE_CREATED);
+    }
+
+    @Benchmark
+    public Object toEventReadPackageId() {
+        return event.toEvent(DistributionEventTopics.AGENT_PACKAGE_CREATED)
+                .getProperty(DistributionEventProperties.DISTRIBUTION_PACKAGE_ID);
+    }
+
+    @Benchmark
+    public DistributionEvent fromEvent() {
+        return DistributionEvent.fromEvent(osgiEvent);
+    }
+
+    @Benchmark
+    public DistributionEvent roundTrip() {
+        return DistributionEvent.fromEvent(event.toEvent(DistributionEventTopics.AGENT_PACKAGE_CREATED));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.sling.distribution.CompiledPathFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks matching paths against request filters, either compiled once or parsed for every path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathFilterBenchmark {
+
+    private static final String[] FILTERS = {
+            "+/content/site/.*",
+            "-/content/site/en/section[0-9]+/page1.*",
+            "-/content/site/.*/jcr:content/renditions/.*",
+            "+/content/site/en/section1/page10",
+            "-/content/site/fr"
+    };
+
+    private String[] paths;
+
+    private CompiledPathFilter compiled;
+
+    @Setup
+    public void setup() {
+        paths = new String[1000];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = "/content/site/en/section" + (i % 10) + "/page" + i + (i % 3 == 0 ? "/jcr:content/renditions/original" : "");
+        }
+        compiled = CompiledPathFilter.compile(FILTERS);
+    }
+
+    @Benchmark
+    public void compiledFilter(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(compiled.matches(path));
+        }
+    }
+
+    @Benchmark
+    public void rawFilters(Blackhole blackhole) {
+        for (String path : paths) {
+            boolean included = false;
+            for (String filter : FILTERS) {
+                if (Pattern.matches(filter.substring(1), path)) {
+                    included = filter.charAt(0) == '+';
+                }
+            }
+            blackhole.consume(included);
+        }
+    }
+}
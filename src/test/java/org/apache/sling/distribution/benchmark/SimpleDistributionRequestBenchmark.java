@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.benchmark;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.distribution.DistributionRequestType;
+import org.apache.sling.distribution.SimpleDistributionRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the construction of {@link SimpleDistributionRequest}s and their path lookups.
+ * Allocation rates can be compared by running the benchmarks with the JMH {@code -prof gc} profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SimpleDistributionRequestBenchmark {
+
+    @Param({"1", "100", "10000", "100000"})
+    public int pathCount;
+
+    private String[] paths;
+
+    private Set<String> deepPaths;
+
+    private Map<String, String[]> pathFilters;
+
+    private SimpleDistributionRequest request;
+
+    @Setup
+    public void setup() {
+        paths = new String[pathCount];
+        deepPaths = new HashSet<>();
+        pathFilters = new HashMap<>();
+        for (int i = 0; i < pathCount; i++) {
+            paths[i] = "/content/site/en/section" + (i % 100) + "/page" + i;
+            if (i % 2 == 0) {
+                deepPaths.add(paths[i]);
+            }
+            if (i % 10 == 0) {
+                pathFilters.put(paths[i], new String[] {"+" + paths[i] + "/.*", "-" + paths[i] + "/jcr:content"});
+            }
+        }
+        request = new SimpleDistributionRequest(DistributionRequestType.ADD, paths, deepPaths, pathFilters);
+    }
+
+    @Benchmark
+    public SimpleDistributionRequest construct() {
+        return new SimpleDistributionRequest(DistributionRequestType.ADD, paths, deepPaths, pathFilters);
+    }
+
+    @Benchmark
+    public SimpleDistributionRequest build() {
+        SimpleDistributionRequest.Builder builder = SimpleDistributionRequest.builder(DistributionRequestType.ADD);
+        for (String path : paths) {
+            builder.addPath(path, deepPaths.contains(path), pathFilters.get(path));
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public SimpleDistributionRequest constructShallow() {
+        return new SimpleDistributionRequest(DistributionRequestType.ADD, paths);
+    }
+
+    @Benchmark
+    public void isDeep(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(request.isDeep(path));
+        }
+    }
+
+    @Benchmark
+    public void getFilters(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(request.getFilters(path));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.event;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+public class DistributionEventBatcherTest {
+
+    private final List<Event> posted = new ArrayList<>();
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final EventAdmin eventAdmin = new EventAdmin() {
+        @Override
+        public void postEvent(Event event) {
+            posted.add(event);
+        }
+
+        @Override
+        public void sendEvent(Event event) {
+            posted.add(event);
+        }
+    };
+
+    @Test
+    public void testFlushOnCount() {
+        DistributionEventBatcher batcher = new DistributionEventBatcher(eventAdmin, 2, 1000, 1, now::get);
+        batcher.add(DistributionEventTopics.AGENT_PACKAGE_CREATED, event("pkg-1"));
+        assertThat(posted.size(), equalTo(0));
+        batcher.add(DistributionEventTopics.AGENT_PACKAGE_CREATED, event("pkg-2"));
+        assertThat(posted.size(), equalTo(1));
+
+        Event batch = posted.get(0);
+        assertThat(batch.getTopic(), equalTo(DistributionEventTopics.BATCH_EVENT_BASE + "/agent/package/created"));
+        assertThat(batch.getTopic().startsWith(DistributionEventTopics.EVENT_BASE + "/"), equalTo(false));
+        assertThat(DistributionEventBatcher.isBatch(batch), equalTo(true));
+        assertThat(DistributionEventBatcher.getCount(batch), equalTo(2));
+        assertThat(DistributionEventBatcher.getBatchedTopic(batch), equalTo(DistributionEventTopics.AGENT_PACKAGE_CREATED));
+        List<DistributionEvent> events = DistributionEventBatcher.expand(batch);
+        assertThat(events.size(), equalTo(2));
+        assertThat(events.get(1).getPackageId(), equalTo("pkg-2"));
+        assertThat(events.get(1).getDistPaths(), equalTo(new String[] {"/content/pkg-2"}));
+    }
+
+    @Test
+    public void testFlushOnTime() {
+        DistributionEventBatcher batcher = new DistributionEventBatcher(eventAdmin, 100, 1000, 1, now::get);
+        batcher.add(DistributionEventTopics.AGENT_PACKAGE_CREATED, event("pkg-1"));
+        batcher.add(DistributionEventTopics.AGENT_PACKAGE_QUEUED, event("pkg-1"));
+        batcher.flushIfDue();
+        assertThat(posted.size(), equalTo(0));
+        now.set(1000);
+        batcher.flushIfDue();
+        assertThat(posted.size(), equalTo(2));
+        batcher.flush();
+        assertThat(posted.size(), equalTo(2));
+    }
+
+    @Test
+    public void testSampling() {
+        DistributionEventBatcher batcher = new DistributionEventBatcher(eventAdmin, 100, 1000, 3, now::get);
+        for (int i = 0; i < 7; i++) {
+            batcher.add(DistributionEventTopics.AGENT_PACKAGE_DISTRIBUTED, event("pkg-" + i));
+        }
+        batcher.flush();
+        Event batch = posted.get(0);
+        assertThat(DistributionEventBatcher.getCount(batch), equalTo(7));
+        List<DistributionEvent> events = DistributionEventBatcher.expand(batch);
+        assertThat(events.size(), equalTo(3));
+        assertThat(events.get(2).getPackageId(), equalTo("pkg-6"));
+    }
+
+    @Test
+    public void testExpandCarriesAllProperties() {
+        DistributionEventBatcher batcher = new DistributionEventBatcher(eventAdmin, 100, 1000, 1, now::get);
+        batcher.add(DistributionEventTopics.AGENT_PACKAGE_SUPERSEDED, event("pkg-1")
+                .withPriority("BULK")
+                .withBaseline("revision:r1")
+                .withFingerprint("sha-256:abc")
+                .withSupersededBy("pkg-2"));
+        batcher.add(DistributionEventTopics.AGENT_PACKAGE_SUPERSEDED, event("pkg-3"));
+        batcher.flush();
+
+        Event batch = posted.get(0);
+        assertThat(DistributionEventBatcher.getBatchedTopic(batch), equalTo(DistributionEventTopics.AGENT_PACKAGE_SUPERSEDED));
+        List<DistributionEvent> events = DistributionEventBatcher.expand(batch);
+        DistributionEvent first = events.get(0);
+        assertThat(first.getPriority(), equalTo("BULK"));
+        assertThat(first.getBaseline(), equalTo("revision:r1"));
+        assertThat(first.getFingerprint(), equalTo("sha-256:abc"));
+        assertThat(first.getSupersededBy(), equalTo("pkg-2"));
+        assertThat(first.toEvent(DistributionEventTopics.AGENT_PACKAGE_SUPERSEDED)
+                .getProperty(DistributionEventProperties.DISTRIBUTION_SUPERSEDED_BY), equalTo((Object) "pkg-2"));
+        assertThat(events.get(1).getSupersededBy(), equalTo(null));
+        assertThat(events.get(1).getPriority(), equalTo(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsForeignTopics() {
+        new DistributionEventBatcher(eventAdmin, 100, 1000, 1, now::get).add("org/example/topic", event("pkg-1"));
+    }
+
+    @Test
+    public void testExpandSingleEvent() {
+        Event single = event("pkg-1").toEvent(DistributionEventTopics.AGENT_PACKAGE_CREATED);
+        assertThat(DistributionEventBatcher.isBatch(single), equalTo(false));
+        assertThat(DistributionEventBatcher.getCount(single), equalTo(1));
+        assertThat(DistributionEventBatcher.expand(single).get(0).getPackageId(), equalTo("pkg-1"));
+    }
+
+    private static DistributionEvent event(String packageId) {
+        return new DistributionEvent(packageId, "publish", "agent", "ADD", new String[] {"/content/" + packageId}, null);
+    }
+}
@@ -22,11 +22,15 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.apache.sling.distribution.CompactPathSet;
 import org.hamcrest.CoreMatchers;
 import org.junit.Before;
 import org.junit.Test;
 import org.osgi.service.event.Event;
+import org.osgi.service.event.EventConstants;
 
 public class DistributionEventTest {
 
@@ -69,4 +73,60 @@ public class DistributionEventTest {
         assertThat(Arrays.asList(deepPaths), CoreMatchers.hasItems(DEEP_PATH));
     }
 
+    @Test
+    public void testPropertyView() {
+        Event osgiEvent = event.toEvent(DistributionEventTopics.AGENT_PACKAGE_QUEUED);
+        assertThat(Arrays.asList(osgiEvent.getPropertyNames()), CoreMatchers.hasItems(
+                DistributionEventProperties.DISTRIBUTION_PACKAGE_ID, DistributionEventProperties.DISTRIBUTION_PATHS,
+                EventConstants.EVENT_TOPIC));
+        assertThat(osgiEvent.containsProperty(DistributionEventProperties.DISTRIBUTION_ENQUEUE_TIMESTAMP), equalTo(false));
+        assertThat(osgiEvent, equalTo(event.toEvent(DistributionEventTopics.AGENT_PACKAGE_QUEUED)));
+
+        Map<String, Object> map = event.asMap();
+        assertThat(map.size(), equalTo(6));
+        assertThat(map.get(DistributionEventProperties.DISTRIBUTION_TYPE), equalTo((Object) DIST_TYPE));
+        Map<String, Object> copy = new HashMap<>(map);
+        assertThat(map, equalTo(copy));
+        assertThat(copy, equalTo(map));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPropertyViewReadOnly() {
+        event.asMap().put(DistributionEventProperties.DISTRIBUTION_TYPE, "DELETE");
+    }
+
+    @Test
+    public void testNullProperties() {
+        DistributionEvent partial = new DistributionEvent(PKG_ID, NAME, KIND, DIST_TYPE, null, null);
+        Map<String, Object> map = partial.asMap();
+        assertThat(map.containsKey(DistributionEventProperties.DISTRIBUTION_PATHS), equalTo(false));
+        assertThat(map.size(), equalTo(5));
+        assertThat(map.keySet().contains(DistributionEventProperties.DISTRIBUTION_DEEP_PATHS), equalTo(true));
+    }
+
+    @Test
+    public void testPriority() {
+        Event osgiEvent = event.withPriority("INTERACTIVE").toEvent(DistributionEventTopics.AGENT_PACKAGE_QUEUED);
+        assertThat((String) osgiEvent.getProperty(DistributionEventProperties.DISTRIBUTION_PRIORITY), equalTo("INTERACTIVE"));
+        assertThat(DistributionEvent.fromEvent(osgiEvent).getPriority(), equalTo("INTERACTIVE"));
+        assertThat(event.asMap().containsKey(DistributionEventProperties.DISTRIBUTION_PRIORITY), equalTo(false));
+    }
+
+    @Test
+    public void testBaseline() {
+        Event osgiEvent = event.withBaseline("revision:r42").toEvent(DistributionEventTopics.AGENT_PACKAGE_QUEUED);
+        assertThat((String) osgiEvent.getProperty(DistributionEventProperties.DISTRIBUTION_BASELINE), equalTo("revision:r42"));
+        assertThat(DistributionEvent.fromEvent(osgiEvent).getBaseline(), equalTo("revision:r42"));
+    }
+
+    @Test
+    public void testCompactPaths() {
+        DistributionEvent compact = DistributionEvent.withCompactPaths(PKG_ID, NAME, KIND, DIST_TYPE,
+                CompactPathSet.of(PATH1, DEEP_PATH), CompactPathSet.of(DEEP_PATH));
+        Event osgiEvent = compact.toEvent(DistributionEventTopics.AGENT_PACKAGE_CREATED);
+        String[] paths = (String[])(osgiEvent.getProperty(DistributionEventProperties.DISTRIBUTION_PATHS));
+        assertThat(paths, equalTo(new String[] {DEEP_PATH, PATH1}));
+        assertThat(compact.getDistDeepPaths(), equalTo(new String[] {DEEP_PATH}));
+    }
+
 }
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.metrics;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.distribution.DistributionRequestType;
+import org.junit.Test;
+
+public class StripedDistributionMetricsTest {
+
+    private final StripedDistributionMetrics metrics = new StripedDistributionMetrics();
+
+    @Test
+    public void testCounts() {
+        metrics.record("publish", DistributionRequestType.ADD, DistributionStage.QUEUED, -1);
+        metrics.record("publish", DistributionRequestType.ADD, DistributionStage.QUEUED, -1);
+        metrics.record("publish", DistributionRequestType.DELETE, DistributionStage.QUEUED, -1);
+        assertThat(metrics.getCount("publish", DistributionRequestType.ADD, DistributionStage.QUEUED), equalTo(2L));
+        assertThat(metrics.getCount("publish", DistributionRequestType.DELETE, DistributionStage.QUEUED), equalTo(1L));
+        assertThat(metrics.getCount("preview", DistributionRequestType.ADD, DistributionStage.QUEUED), equalTo(0L));
+        assertThat(metrics.getLatency("publish", DistributionRequestType.ADD, DistributionStage.QUEUED).getCount(), equalTo(0L));
+    }
+
+    @Test
+    public void testDropRate() {
+        metrics.record("publish", DistributionRequestType.ADD, DistributionStage.DISTRIBUTED, 10);
+        metrics.record("publish", DistributionRequestType.ADD, DistributionStage.DISTRIBUTED, 10);
+        metrics.record("publish", DistributionRequestType.ADD, DistributionStage.DISTRIBUTED, 10);
+        metrics.record("publish", DistributionRequestType.ADD, DistributionStage.DROPPED, 10);
+        assertThat(metrics.getDropRate("publish", DistributionRequestType.ADD), equalTo(0.25));
+        assertThat(metrics.getDropRate("publish", DistributionRequestType.DELETE), equalTo(0.0));
+    }
+
+    @Test
+    public void testQueueLatency() {
+        long enqueued = System.currentTimeMillis() - 2000;
+        metrics.recordSinceEnqueue("publish", DistributionRequestType.ADD, DistributionStage.DISTRIBUTED, enqueued);
+        LatencyHistogram latency = metrics.getLatency("publish", DistributionRequestType.ADD, DistributionStage.DISTRIBUTED);
+        assertThat(latency.getCount(), equalTo(1L));
+        assertTrue(latency.getMax() >= TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertThat(histogram.getCount(), equalTo(1000L));
+        assertThat(histogram.getMax(), equalTo(1000000L));
+        assertThat(histogram.getMean(), equalTo(500500.0));
+        assertWithin(histogram.getValueAtPercentile(50), 500000L);
+        assertWithin(histogram.getValueAtPercentile(99), 990000L);
+        assertThat(histogram.getValueAtPercentile(100), equalTo(1000000L));
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value : new long[] {0, 1, 7, 8, 15, 16, 17, 1000, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBound(bucket - 1) < value);
+        }
+    }
+
+    private static void assertWithin(long actual, long expected) {
+        assertTrue(actual + " not within 12.5% of " + expected, Math.abs(actual - expected) <= expected / 8);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.transport;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class BasicDistributionTransportSecretTest {
+
+    @Test
+    public void testPreEncodedHeader() {
+        BasicDistributionTransportSecret secret = new BasicDistributionTransportSecret("admin", "admin", 3);
+        assertThat(secret.getAuthorizationHeader(), equalTo("Basic YWRtaW46YWRtaW4="));
+        assertThat(secret.getAuthorizationHeader(), sameInstance(secret.getAuthorizationHeader()));
+        assertThat(secret.asCredentialsMap().get(BasicDistributionTransportSecret.USERNAME), equalTo("admin"));
+        assertThat(secret.getVersion(), equalTo(3L));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCredentialsAreImmutable() {
+        new BasicDistributionTransportSecret("admin", "admin", 1).asCredentialsMap().put("password", "other");
+    }
+
+    @Test
+    public void testDefaults() {
+        DistributionTransportSecret secret = Collections::emptyMap;
+        assertThat(secret.getAuthorizationHeader(), nullValue());
+        assertThat(secret.getVersion(), equalTo(0L));
+    }
+}
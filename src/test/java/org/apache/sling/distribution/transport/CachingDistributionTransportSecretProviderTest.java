@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.distribution.transport;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class CachingDistributionTransportSecretProviderTest {
+
+    private static final URI ENDPOINT = URI.create("https://publish.example.com:8443/libs/sling/distribution/importer");
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private final DistributionTransportSecretProvider delegate = uri -> {
+        int version = loads.incrementAndGet();
+        return () -> Collections.singletonMap("version", String.valueOf(version));
+    };
+
+    @Test
+    public void testCachedByAuthority() {
+        CachingDistributionTransportSecretProvider provider = provider(delegate, 3);
+        DistributionTransportSecret secret = provider.getSecret(ENDPOINT);
+        assertThat(provider.getSecret(URI.create("https://publish.example.com:8443/other")), sameInstance(secret));
+        assertThat(loads.get(), equalTo(1));
+        provider.getSecret(URI.create("https://publish2.example.com:8443/other"));
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    public void testExpiry() {
+        CachingDistributionTransportSecretProvider provider = provider(delegate, 3);
+        DistributionTransportSecret secret = provider.getSecret(ENDPOINT);
+        now.set(1000);
+        assertThat(provider.getSecret(ENDPOINT), sameInstance(secret));
+        assertThat(provider.getSecret(ENDPOINT), sameInstance(secret));
+        assertThat(tasks.size(), equalTo(1));
+        assertThat(loads.get(), equalTo(1));
+        tasks.get(0).run();
+        assertThat(provider.getSecret(ENDPOINT).asCredentialsMap().get("version"), equalTo("2"));
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    public void testExpiredSecretDroppedWhenRefreshFails() {
+        CachingDistributionTransportSecretProvider provider = provider(uri -> {
+            int load = loads.incrementAndGet();
+            if (load == 2 || load == 3) {
+                throw new IllegalStateException("token endpoint unavailable");
+            }
+            return Collections::emptyMap;
+        }, 3);
+        DistributionTransportSecret secret = provider.getSecret(ENDPOINT);
+        now.set(900);
+        provider.getSecret(ENDPOINT);
+        tasks.remove(0).run();
+        assertThat(provider.getSecret(ENDPOINT), sameInstance(secret));
+        assertThat(provider.size(), equalTo(1));
+        now.set(1000);
+        assertThat(provider.getSecret(ENDPOINT), sameInstance(secret));
+        tasks.remove(0).run();
+        assertThat(provider.size(), equalTo(0));
+        provider.getSecret(ENDPOINT);
+        assertThat(loads.get(), equalTo(4));
+        assertThat(provider.size(), equalTo(1));
+    }
+
+    @Test
+    public void testRefreshAhead() {
+        CachingDistributionTransportSecretProvider provider = provider(delegate, 3);
+        DistributionTransportSecret secret = provider.getSecret(ENDPOINT);
+        now.set(900);
+        assertThat(provider.getSecret(ENDPOINT), sameInstance(secret));
+        assertThat(provider.getSecret(ENDPOINT), sameInstance(secret));
+        assertThat(tasks.size(), equalTo(1));
+        tasks.get(0).run();
+        assertThat(provider.getSecret(ENDPOINT).asCredentialsMap().get("version"), equalTo("2"));
+        now.set(1500);
+        assertThat(provider.getSecret(ENDPOINT).asCredentialsMap().get("version"), equalTo("2"));
+    }
+
+    @Test
+    public void testEviction() {
+        CachingDistributionTransportSecretProvider provider = provider(delegate, 2);
+        provider.getSecret(URI.create("https://a"));
+        now.set(1);
+        provider.getSecret(URI.create("https://b"));
+        now.set(2);
+        provider.getSecret(URI.create("https://c"));
+        assertThat(provider.size(), equalTo(2));
+        provider.getSecret(URI.create("https://a"));
+        assertThat(loads.get(), equalTo(4));
+    }
+
+    @Test
+    public void testEvictionOfLeastRecentlyUsed() {
+        CachingDistributionTransportSecretProvider provider = provider(delegate, 2);
+        provider.getSecret(URI.create("https://a"));
+        provider.getSecret(URI.create("https://b"));
+        provider.getSecret(URI.create("https://a"));
+        provider.getSecret(URI.create("https://c"));
+        assertThat(provider.size(), equalTo(2));
+        provider.getSecret(URI.create("https://a"));
+        assertThat(loads.get(), equalTo(3));
+        provider.getSecret(URI.create("https://b"));
+        assertThat(loads.get(), equalTo(4));
+    }
+
+    @Test
+    public void testNullSecretsAreNotCached() {
+        CachingDistributionTransportSecretProvider provider = provider(uri -> {
+            loads.incrementAndGet();
+            return null;
+        }, 2);
+        assertThat(provider.getSecret(ENDPOINT), nullValue());
+        assertThat(provider.getSecret(ENDPOINT), nullValue());
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    public void testConcurrentMissesAreCollapsed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CachingDistributionTransportSecretProvider provider = provider(uri -> {
+            loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections::emptyMap;
+        }, 2);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<DistributionTransportSecret>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> provider.getSecret(ENDPOINT)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            DistributionTransportSecret first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<DistributionTransportSecret> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS), sameInstance(first));
+            }
+            assertThat(loads.get(), equalTo(1));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLoadErrorsAreNotCached() {
+        CachingDistributionTransportSecretProvider provider = provider(uri -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new AssertionError("keystore unavailable");
+            }
+            return Collections::emptyMap;
+        }, 2);
+        try {
+            provider.getSecret(ENDPOINT);
+            fail("error not propagated");
+        } catch (AssertionError e) {
+            assertThat(e.getMessage(), equalTo("keystore unavailable"));
+        }
+        assertThat(provider.size(), equalTo(0));
+        assertThat(provider.getSecret(ENDPOINT).asCredentialsMap().size(), equalTo(0));
+    }
+
+    @Test
+    public void testWaitingForAnotherLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CachingDistributionTransportSecretProvider provider = new CachingDistributionTransportSecretProvider(uri -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections::emptyMap;
+        }, 1000, 200, 2, 50, tasks::add, now::get);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> provider.getSecret(ENDPOINT));
+            assertThat(loading.await(5, TimeUnit.SECONDS), equalTo(true));
+            try {
+                provider.getSecret(ENDPOINT);
+                fail("load timeout not applied");
+            } catch (IllegalStateException e) {
+                assertThat(e.getCause() instanceof TimeoutException, equalTo(true));
+            }
+            Thread.currentThread().interrupt();
+            try {
+                provider.getSecret(ENDPOINT);
+                fail("interrupt not propagated");
+            } catch (IllegalStateException e) {
+                assertThat(Thread.interrupted(), equalTo(true));
+            }
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private CachingDistributionTransportSecretProvider provider(DistributionTransportSecretProvider delegate, int maxSize) {
+        return new CachingDistributionTransportSecretProvider(delegate, 1000, 200, maxSize, 5000, tasks::add,
+                now::get);
+    }
+}